@@ -0,0 +1,100 @@
+package edu.msu.prasadj2.examprasadj2;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.GameState;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the time and allocations of Game.draw on a device, still
+ * and while a fling animates.
+ * Results are logged under the GameDrawTiming tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GameDrawTimingTest {
+
+    private static final String TAG = "GameDrawTiming";
+
+    private static final int WARMUP_FRAMES = 200;
+
+    private static final int FRAMES = 2000;
+
+    @Test
+    public void steadyStateDrawIsFastAndAllocationFree() {
+        // A full board, 2 up to 32768
+        GameEngine engine = new GameEngine(1);
+        engine.restore(0xFEDCBA9876543211L, 0);
+        Game game = new Game(new GameState(engine, new GameRandom(2), 3, null));
+
+        Bitmap bitmap = Bitmap.createBitmap(1080, 1080, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            game.draw(canvas);
+        }
+
+        Debug.startAllocCounting();
+        int allocations = Debug.getThreadAllocCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            game.draw(canvas);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocations = Debug.getThreadAllocCount() - allocations;
+        Debug.stopAllocCounting();
+
+        Log.i(TAG, String.format("%.1f us per frame, %d allocations in %d frames",
+                elapsed / 1000.0 / FRAMES, allocations, FRAMES));
+        assertEquals(0, allocations);
+        bitmap.recycle();
+    }
+
+    @Test
+    public void animationFramesAreAllocationFree() {
+        Bitmap bitmap = Bitmap.createBitmap(1080, 1080, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        // 60 Hz frames through the slide and the pop
+        long frame = 16_666_667L;
+        int allocations = 0;
+        int frames = 0;
+        for (int i = 0; i < 20; i++) {
+            // Every row slides and merges left
+            GameEngine engine = new GameEngine(1);
+            engine.restore(0x1122334455667788L, 0);
+            Game game = new Game(new GameState(engine, new GameRandom(2), 3, null));
+            game.draw(canvas);
+            game.fling(Bitboard.LEFT);
+            game.awaitMoves();
+            assertTrue(game.acceptSnapshot());
+
+            Debug.startAllocCounting();
+            int before = Debug.getThreadAllocCount();
+            long time = 1;
+            boolean running = true;
+            while (running) {
+                running = game.advanceAnimation(time);
+                game.draw(canvas);
+                time += frame;
+                frames++;
+            }
+            allocations += Debug.getThreadAllocCount() - before;
+            Debug.stopAllocCounting();
+        }
+
+        Log.i(TAG, String.format("%d allocations in %d animation frames", allocations, frames));
+        assertEquals(0, allocations);
+        bitmap.recycle();
+    }
+}
@@ -5,25 +5,59 @@
 
 package edu.msu.prasadj2.examprasadj2;
 
-import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Random;
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.BoardSnapshot;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.GameState;
+import edu.msu.prasadj2.examprasadj2.core.MoveHistory;
+import edu.msu.prasadj2.examprasadj2.core.MoveProcessor;
+import edu.msu.prasadj2.examprasadj2.core.MoveTransitions;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
 
 /**
- * Class for the 2048 game
+ * Class for the 2048 game.
+ * Draws and handles input for a GameEngine, which holds the rules.
+ *
+ * The engine and undo history belong to a MoveProcessor, which applies
+ * moves on its worker thread and publishes board snapshots. This class
+ * only queues moves and, on the UI thread, shows the latest snapshot, so
+ * touch handling and drawing never wait for move processing.
+ *
+ * Saved as a GameState byte array through Parcelable, so only the
+ * board, score, generator states, palette seed and undo history are
+ * written; colors and paints are rebuilt when the game is restored.
  */
-public class Game implements Serializable {
+public class Game implements Parcelable {
+
+    /**
+     * Restores games saved with writeToParcel
+     */
+    public static final Creator<Game> CREATOR = new Creator<Game>() {
+        @Override
+        public Game createFromParcel(Parcel in) {
+            return new Game(GameState.decode(in.createByteArray()));
+        }
+
+        @Override
+        public Game[] newArray(int size) {
+            return new Game[size];
+        }
+    };
 
     /**
      * Percentage of the display width or height that
@@ -31,125 +65,276 @@ public class Game implements Serializable {
      */
     private static final float SCALE_IN_VIEW = 0.95f;
 
-    // Tile count for rows and columns
-    private static final int NUM_TILES = 4;
+    // Length of the slide of a fling animation
+    private static final long SLIDE_NANOS = 100_000_000L;
+
+    // Length of the pop of merged and spawned tiles after the slide
+    private static final long POP_NANOS = 100_000_000L;
 
-    // Possible fling directions
-    private static final int RIGHT = 0, UP = 1, LEFT = 2, DOWN = 3;
+    // How much larger a merged tile grows at the height of its pop
+    private static final float MERGE_POP = 0.15f;
 
-    // Random number generator
-    private Random random = new Random();
+    // Random number generator for cosmetic choices, separate from tile spawns
+    private GameRandom colorRandom;
 
-    // The game score
-    private int score;
+    // Applies moves to the engine and history on a worker thread
+    private MoveProcessor processor;
 
-    // Movement ability flags
-    private boolean canMoveLeft, canMoveRight, canMoveUp, canMoveDown;
+    // The snapshot being shown, replaced on the UI thread only
+    private BoardSnapshot shown;
 
-    // The game board
-    private int[][] board;
+    // Seed the tile colors are generated from
+    private long paletteSeed;
 
-    // List of available tile positions
-    private ArrayList<Integer> openTiles = new ArrayList<Integer>();
+    // Color of each tile exponent, generated from the palette seed
+    private final int[] palette = new int[Bitboard.MAX_EXPONENT + 1];
 
-    // List of merged tile values
-    private ArrayList<Integer> mergedValues = new ArrayList<Integer>();
+    // Board geometry for the current canvas size
+    private final RenderCache renderCache = new RenderCache(SCALE_IN_VIEW);
 
-    // Tile number value and color map
-    private HashMap<Integer, Integer> tileColors;
+    // Every tile pre-rendered at the current cell size and palette
+    private final TileAtlas tileAtlas = new TileAtlas();
+
+    // Where the tiles of the last fling went, reused for every fling
+    private final MoveTransitions transitions = new MoveTransitions();
+
+    // Cells the fling being animated changed
+    private int animationChangedCells;
+
+    // Whether the last fling is being animated
+    private boolean animating;
+
+    // Frame time the animation started at, 0 until its first frame
+    private long animationStart;
+
+    // Time into the animation of the frame being drawn
+    private long animationNanos;
+
+    // Reusable rectangle for tiles drawn between cells or scaled
+    private final RectF tileRect = new RectF();
 
     /**
      * Paint for filling the area the board is in
      */
-    private transient Paint fillPaint;
+    private Paint fillPaint;
 
     /**
      * Paint for drawing text
      */
-    private transient Paint textPaint;
+    private Paint textPaint;
 
     /**
      * Paint for outlining the area the board is in
      */
-    private transient Paint outlinePaint;
+    private Paint outlinePaint;
 
     /**
-     * The size of the board in pixels
+     * Paint for copying tiles from the atlas
      */
-    private int boardSize;
+    private Paint bitmapPaint;
 
     /**
-     * Left margin in pixels
+     * Game constructor
      */
-    private int marginX;
+    public Game() {
+        this(GameRandom.newSeed());
+    }
 
     /**
-     * Top margin in pixels
+     * Game constructor
+     * @param seed Seed for the game; equal seeds play out identically
      */
-    private int marginY;
+    public Game(long seed) {
+        GameRandom random = new GameRandom(seed);
+        GameEngine engine = new GameEngine(random.split(), SpawnPolicy.TWOS_ONLY);
+        colorRandom = random.split();
+        MoveHistory history = new MoveHistory(MoveHistory.DEFAULT_CAPACITY);
+        history.reset(engine.getBoard(), engine.getScore());
+        processor = new MoveProcessor(engine, history);
+        shown = processor.getSnapshot();
+        randomizeColors();
+        initializePaints();
+    }
 
     /**
-     * Game constructor
+     * Game constructor for a saved game
+     * @param state The saved state
      */
-    public Game() {
-        score = 0;
-        initializeBoard();
-        determineValidMoves();
-        randomizeColors();
+    public Game(@NonNull GameState state) {
+        GameEngine engine = state.getEngine();
+        colorRandom = state.getColorRandom();
+        MoveHistory history = state.getHistory();
+        if (history == null || history.getBoard() != engine.getBoard()) {
+            history = new MoveHistory(MoveHistory.DEFAULT_CAPACITY);
+            history.reset(engine.getBoard(), engine.getScore());
+        }
+        processor = new MoveProcessor(engine, history);
+        shown = processor.getSnapshot();
+        paletteSeed = state.getPaletteSeed();
+        buildPalette();
         initializePaints();
     }
 
     /**
-     * Draws this view
-     * @param canvas The canvas
+     * Saves this game, once the moves already queued have been applied
+     * @return The game's state, encoded by GameState.encode
      */
-    public void draw(@NonNull Canvas canvas) {
-        int wid = canvas.getWidth();
-        int hit = canvas.getHeight();
+    public byte[] encode() {
+        return processor.encode(colorRandom, paletteSeed);
+    }
 
-        // Determine the minimum of the two dimensions
-        int minDim = wid < hit ? wid : hit;
+    /**
+     * Saves this game to a parcel
+     * @param dest The parcel
+     * @param flags Flags about how the object should be written
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeByteArray(encode());
+    }
 
-        boardSize = (int)(minDim * SCALE_IN_VIEW);
+    /**
+     * Describes the special objects in the parcel
+     * @return 0, as there are none
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
 
-        // Compute the margins so we center the board
-        marginX = (wid - boardSize) / 2;
-        marginY = (hit - boardSize) / 2;
+    /**
+     * Draws this view. Geometry comes from the render cache and tiles are
+     * copied from the atlas, one drawBitmap each, so a frame allocates
+     * nothing unless the canvas size or the palette changed. Cells outside
+     * the canvas clip, as after a partial invalidate, are skipped.
+     *
+     * While a fling animates, its tiles slide from their sources to their
+     * destinations, then merged tiles pop and the spawned tile grows in.
+     * The frame is chosen by advanceAnimation().
+     * @param canvas The canvas
+     */
+    public void draw(@NonNull Canvas canvas) {
+        RenderCache cache = renderCache;
+        cache.update(canvas.getWidth(), canvas.getHeight());
+        tileAtlas.update(cache.getCellSize(), paletteSeed, palette,
+                fillPaint, textPaint, outlinePaint);
 
         // Board background
         fillPaint.setColor(Color.LTGRAY);
-        canvas.drawRect(marginX, marginY,
-                marginX + boardSize, marginY + boardSize, fillPaint);
-
-        // Board tiles
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++) {
-                int value = board[row][col];
-                if (value < 2) {
-                    continue;
-                }
+        canvas.drawRect(cache.getBoard(), fillPaint);
 
-                String valueString = "" + value;
+        if (animating && animationNanos < SLIDE_NANOS) {
+            drawSlide(canvas, (float)animationNanos / SLIDE_NANOS);
+            return;
+        }
 
-                float left = marginX + col * (float)boardSize / NUM_TILES;
-                float top = marginY + row * (float)boardSize / NUM_TILES;
-                float right = marginX + (col + 1) * (float)boardSize / NUM_TILES;
-                float bottom = marginY + (row + 1) * (float)boardSize / NUM_TILES;
+        // Merged and spawned tiles pop after the slide
+        int popCells = 0;
+        float pop = 1;
+        if (animating) {
+            for (int i = 0; i < transitions.getCount(); i++) {
+                if (transitions.isMerged(i)) {
+                    popCells |= 1 << transitions.getDestination(i);
+                }
+            }
+            if (transitions.getSpawnCell() >= 0) {
+                popCells |= 1 << transitions.getSpawnCell();
+            }
+            pop = Math.min((float)(animationNanos - SLIDE_NANOS) / POP_NANOS, 1);
+        }
 
-                float textX = (marginX + (col + 0.5f) * (float)boardSize / NUM_TILES)
-                        - (textPaint.measureText(valueString)/2);
-                float textY = (marginY + (row + 0.5f) * (float)boardSize / NUM_TILES) -
-                        ((textPaint.descent() + textPaint.ascent())/2);
+        // Board tiles, one nibble per cell
+        Bitmap atlas = tileAtlas.getBitmap();
+        long board = shown.getBoard();
+        for (int cell = 0; cell < RenderCache.CELLS; cell++, board >>>= 4) {
+            int exponent = (int)board & 0xF;
+            RectF rect = cache.getCell(cell);
+            if (exponent == 0 || canvas.quickReject(rect, Canvas.EdgeType.BW)) {
+                continue;
+            }
+            if ((popCells & 1 << cell) == 0) {
+                canvas.drawBitmap(atlas, tileAtlas.getSource(exponent), rect, bitmapPaint);
+            }
+            else if (cell == transitions.getSpawnCell()) {
+                // Spawned tiles grow in
+                drawScaled(canvas, exponent, rect, pop);
+            }
+            else {
+                // Merged tiles swell and settle back
+                drawScaled(canvas, exponent, rect, 1 + MERGE_POP * (float)Math.sin(Math.PI * pop));
+            }
+        }
+    }
 
-                Integer color = tileColors.get(value);
-                fillPaint.setColor(color != null ? color : Color.LTGRAY);
-                canvas.drawRect(left, top, right, bottom, fillPaint);
-                canvas.drawText(valueString, textX, textY, textPaint);
-                canvas.drawRect(left, top, right, bottom, outlinePaint);
+    /**
+     * Draws the tiles of the last fling part way from their sources to
+     * their destinations, before any merge or spawn
+     * @param canvas The canvas
+     * @param t Fraction of the slide done, from 0 to 1
+     */
+    private void drawSlide(@NonNull Canvas canvas, float t) {
+        // Ease out, fast at first and slowing into place
+        t = 1 - (1 - t) * (1 - t);
+        Bitmap atlas = tileAtlas.getBitmap();
+        for (int i = 0; i < transitions.getCount(); i++) {
+            RectF from = renderCache.getCell(transitions.getSource(i));
+            RectF to = renderCache.getCell(transitions.getDestination(i));
+            tileRect.set(from.left + (to.left - from.left) * t, from.top + (to.top - from.top) * t,
+                    from.right + (to.right - from.right) * t, from.bottom + (to.bottom - from.bottom) * t);
+            if (!canvas.quickReject(tileRect, Canvas.EdgeType.BW)) {
+                canvas.drawBitmap(atlas, tileAtlas.getSource(transitions.getExponent(i)), tileRect, bitmapPaint);
             }
         }
     }
 
+    /**
+     * Draws a tile scaled about the center of its cell
+     * @param canvas The canvas
+     * @param exponent Exponent of the tile
+     * @param cell Rectangle of the cell
+     * @param scale Scale of the tile, 1 for the cell size
+     */
+    private void drawScaled(@NonNull Canvas canvas, int exponent, @NonNull RectF cell, float scale) {
+        float inset = cell.width() * (1 - scale) / 2;
+        tileRect.set(cell);
+        tileRect.inset(inset, inset);
+        canvas.drawBitmap(tileAtlas.getBitmap(), tileAtlas.getSource(exponent), tileRect, bitmapPaint);
+    }
+
+    /**
+     * Advances the fling animation to a frame
+     * @param frameTimeNanos Time of the frame, as Choreographer reports it
+     * @return true if the animation needs more frames
+     */
+    public boolean advanceAnimation(long frameTimeNanos) {
+        if (!animating) {
+            return false;
+        }
+        if (animationStart == 0) {
+            animationStart = frameTimeNanos;
+        }
+        animationNanos = frameTimeNanos - animationStart;
+        if (animationNanos >= SLIDE_NANOS + POP_NANOS) {
+            animating = false;
+        }
+        return animating;
+    }
+
+    /**
+     * Stops the fling animation, so the board is drawn as it is
+     */
+    public void cancelAnimation() {
+        animating = false;
+    }
+
+    /**
+     * Gets the cells the fling animation draws into
+     * @return Mask with bit (row * 4 + col) set for each cell
+     */
+    public int getAnimatedCells() {
+        return transitions.getAnimatedCells() | animationChangedCells;
+    }
+
     /**
      * Fling touch event handler
      * @param view The game view
@@ -162,7 +347,7 @@ public class Game implements Serializable {
     public boolean onFlingEvent(View view, MotionEvent e1, MotionEvent e2,
                                 float velocityX, float velocityY) {
 
-        if (!canMoveRight && !canMoveLeft && !canMoveUp && !canMoveDown) {
+        if (shown.isGameOver()) {
             Toast.makeText(((GameView)view).getGameActivity(),
                     R.string.lost, Toast.LENGTH_SHORT).show();
             return false;
@@ -180,480 +365,182 @@ public class Game implements Serializable {
 
         int flingDirection;
         if (angle > 0) {
-            if (angle < 45) { flingDirection = RIGHT; }
-            else if (angle > 45 && angle < 135) { flingDirection = DOWN; }
-            else { flingDirection = LEFT; }
+            if (angle < 45) { flingDirection = Bitboard.RIGHT; }
+            else if (angle > 45 && angle < 135) { flingDirection = Bitboard.DOWN; }
+            else { flingDirection = Bitboard.LEFT; }
         }
         else {
-            if (angle > -45) { flingDirection = RIGHT; }
-            else if (angle < -45 && angle > -135) { flingDirection = UP; }
-            else { flingDirection = LEFT; }
-        }
-
-        switch (flingDirection) {
-            case RIGHT:
-                if (canMoveRight) {
-                    moveRight();
-                    break;
-                }
-                return false;
-            case UP:
-                if (canMoveUp) {
-                    moveUp();
-                    break;
-                }
-                return false;
-            case LEFT:
-                if (canMoveLeft) {
-                    moveLeft();
-                    break;
-                }
-                return false;
-            case DOWN:
-                if (canMoveDown) {
-                    moveDown();
-                    break;
-                }
-                return false;
-            default:
-                return false;
+            if (angle > -45) { flingDirection = Bitboard.RIGHT; }
+            else if (angle < -45 && angle > -135) { flingDirection = Bitboard.UP; }
+            else { flingDirection = Bitboard.LEFT; }
         }
 
-        if (mergedValues.size() > 0) {
-            for (int deltaScore : mergedValues) {
-                score += deltaScore;
-            }
-            updateScore((GameView) view);
-            mergedValues.clear();
-        }
-
-        updateOpenTiles();
-        placeRandomTile();
-        determineValidMoves();
-        
-        if (!canMoveRight && !canMoveLeft && !canMoveUp && !canMoveDown) {
-            Toast.makeText(((GameView)view).getGameActivity(),
-                    R.string.lost, Toast.LENGTH_SHORT).show();
+        // Judged on the board shown; the worker skips flings that no
+        // longer move once the queued ones ahead of them are applied
+        if (!shown.canMove(flingDirection)) {
+            return false;
         }
-
-        view.invalidate();
+        processor.fling(flingDirection);
         return true;
     }
 
     /**
-     * Updates the game score
-     * @param gameView The game view
-     */
-    public void updateScore(@NonNull GameView gameView) {
-        gameView.updateScoreView(score);
-    }
-
-    /**
-     * Starts a new game
+     * Shows the latest snapshot the worker published, animating it if it
+     * is the fling right after the one shown
      * @param view The game view
      */
-    public void startNewGame(@NonNull View view) {
-        score = 0;
-        updateScore((GameView)view);
-        initializeBoard();
-        determineValidMoves();
-        randomizeColors();
-        view.invalidate();
-    }
+    public void showSnapshot(@NonNull GameView view) {
+        BoardSnapshot previous = shown;
+        // A fling still animating has drawn into its own cells too
+        int cells = animating ? getAnimatedCells() : 0;
+        if (!acceptSnapshot()) {
+            if (shown == previous) {
+                return;
+            }
+            view.invalidateCells(cells | Bitboard.changedCells(previous.getBoard(), shown.getBoard()));
+        }
+        else {
+            view.invalidateCells(cells);
+            view.startAnimation();
+        }
 
-    /**
-     * Reloads transient variables and refreshes the screen
-     */
-    public void reload(GameView gameView) {
-        initializePaints();
-        updateScore(gameView);
+        if (shown.getScore() != previous.getScore()) {
+            updateScore(view);
+        }
+        if (shown.isGameOver() && !previous.isGameOver()) {
+            Toast.makeText(view.getGameActivity(), R.string.lost, Toast.LENGTH_SHORT).show();
+        }
     }
 
     /**
-     * Updates the list of open tiles
+     * Takes the latest snapshot the worker published as the one shown
+     * @return true if it is a fling to animate, false if it is not a
+     * fling, skips snapshots or is the one already shown
      */
-    private void updateOpenTiles() {
-        openTiles.clear();
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++) {
-                if (board[row][col] == 0) {
-                    openTiles.add(row);
-                    openTiles.add(col);
-                }
-            }
+    boolean acceptSnapshot() {
+        BoardSnapshot latest = processor.getSnapshot();
+        if (latest == shown) {
+            return false;
         }
+        boolean next = latest.getSequence() == shown.getSequence() + 1 && latest.getDirection() >= 0;
+        shown = latest;
+        animating = next;
+        if (next) {
+            transitions.compute(latest.getPreviousBoard(), latest.getDirection());
+            transitions.setSpawn(latest.getSpawn());
+            animationChangedCells = latest.getChangedCells();
+            animationStart = 0;
+            animationNanos = 0;
+        }
+        return next;
     }
 
     /**
-     * Places a random tile with a value of 2 on an open spot on the board
+     * Queues a fling to the worker
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
      */
-    private void placeRandomTile() {
-        int index;
-        do {
-            index = random.nextInt(openTiles.size() - 1);
-        } while (index % 2 != 0);
-        board[openTiles.get(index)][openTiles.get(index + 1)] = 2;
+    void fling(int direction) {
+        processor.fling(direction);
     }
 
     /**
-     * Moves the tiles right
+     * Waits until the worker has applied every queued move
      */
-    private void moveRight() {
-        for (int[] row : board) {
-
-            for (int i = row.length - 1; i >= 0; i--) {
-                int currentNum = row[i];
-                if (currentNum == 0) {
-                    continue;
-                }
-                for (int j = i - 1; j >= 0; j--) {
-                    if (row[j] == 0) {
-                        continue;
-                    }
-                    else if (row[j] == currentNum) {
-                        row[i] += currentNum;
-                        row[j] = 0;
-                        i = j;
-                        mergedValues.add(currentNum * 2);
-                        break;
-                    }
-                    else {
-                        break;
-                    }
-                }
-            }
-
-            int zeroCount = 0;
-            ArrayList<Integer> nonZeroValues = new ArrayList<Integer>();
-            for (int value : row) {
-                if (value == 0) {
-                    zeroCount++;
-                }
-                else {
-                    nonZeroValues.add(value);
-                }
-            }
-
-            for (int i = 0; i < row.length; i++) {
-                if (i < zeroCount) {
-                    row[i] = 0;
-                }
-                else {
-                    row[i] = nonZeroValues.get(i - zeroCount);
-                }
-            }
-        }
+    void awaitMoves() {
+        processor.awaitIdle();
     }
 
     /**
-     * Moves the tiles left
+     * Sets the listener told of every snapshot the worker publishes
+     * @param listener The listener, called on the worker thread, or null
      */
-    private void moveLeft() {
-        for (int[] row : board) {
-
-            for (int i = 0; i < row.length; i++) {
-                int currentNum = row[i];
-                if (currentNum == 0) {
-                    continue;
-                }
-                for (int j = i + 1; j < row.length; j++) {
-                    if (row[j] == 0) {
-                        continue;
-                    }
-                    else if (row[j] == currentNum) {
-                        row[i] += currentNum;
-                        row[j] = 0;
-                        i = j;
-                        mergedValues.add(currentNum * 2);
-                        break;
-                    }
-                    else {
-                        break;
-                    }
-                }
-            }
-
-            ArrayList<Integer> nonZeroValues = new ArrayList<Integer>();
-            for (int value : row) {
-                if (value != 0) {
-                    nonZeroValues.add(value);
-                }
-            }
-
-            for (int i = 0; i < row.length; i++) {
-                if (i < nonZeroValues.size()) {
-                    row[i] = nonZeroValues.get(i);
-                }
-                else {
-                    row[i] = 0;
-                }
-            }
-        }
+    public void setSnapshotListener(MoveProcessor.Listener listener) {
+        processor.setListener(listener);
     }
 
     /**
-     * Moves the tiles up
+     * Adds the rectangles of some cells to a dirty region
+     * @param cells Mask with bit (row * 4 + col) set for each cell
+     * @param dirty Receives the union of the cell rectangles, rounded out
+     * @return false if the board has not been laid out yet, so the cells
+     * are not known
      */
-    private void moveUp() {
-        for (int col = 0; col < board.length; col++) {
-
-            for (int row = 0; row < board.length; row++) {
-                int currentNum = board[row][col];
-                if (currentNum == 0) {
-                    continue;
-                }
-                for (int j = row + 1; j < board.length; j++) {
-                    if (board[j][col] == 0) {
-                        continue;
-                    }
-                    else if (board[j][col] == currentNum) {
-                        board[row][col] += currentNum;
-                        board[j][col] = 0;
-                        row = j;
-                        mergedValues.add(currentNum * 2);
-                        break;
-                    }
-                    else {
-                        break;
-                    }
-                }
-            }
-
-            ArrayList<Integer> nonZeroValues = new ArrayList<Integer>();
-            for (int row = 0; row < board.length; row++) {
-                int value = board[row][col];
-                if (value != 0) {
-                    nonZeroValues.add(value);
-                }
-            }
-
-            for (int row = 0; row < board.length; row++) {
-                if (row < nonZeroValues.size()) {
-                    board[row][col] = nonZeroValues.get(row);
-                }
-                else {
-                    board[row][col] = 0;
-                }
-            }
-
+    public boolean addDirtyCells(int cells, @NonNull Rect dirty) {
+        if (renderCache.getCellSize() == 0) {
+            return false;
         }
-    }
-
-    /**
-     * Moves the tiles down
-     */
-    private void moveDown() {
-        for (int col = 0; col < board.length; col++) {
-
-            for (int row = board.length - 1; row >= 0; row--) {
-                int currentNum = board[row][col];
-                if (currentNum == 0) {
-                    continue;
-                }
-                for (int j = row - 1; j >= 0; j--) {
-                    if (board[j][col] == 0) {
-                        continue;
-                    }
-                    else if (board[j][col] == currentNum) {
-                        board[row][col] += currentNum;
-                        board[j][col] = 0;
-                        row = j;
-                        mergedValues.add(currentNum * 2);
-                        break;
-                    }
-                    else {
-                        break;
-                    }
-                }
-            }
-
-            int zeroCount = 0;
-            ArrayList<Integer> nonZeroValues = new ArrayList<Integer>();
-            for (int row = 0; row < board.length; row++) {
-                int value = board[row][col];
-                if (value == 0) {
-                    zeroCount++;
-                }
-                else {
-                    nonZeroValues.add(value);
-                }
-            }
-
-            for (int row = 0; row < board.length; row++) {
-                if (row < zeroCount) {
-                    board[row][col] = 0;
-                }
-                else {
-                    board[row][col] = nonZeroValues.get(row - zeroCount);
-                }
-            }
-
+        // Room for a popping merged tile, plus a pixel for filtered bitmap edges
+        int margin = (int)Math.ceil(renderCache.getCellSize() * MERGE_POP / 2) + 1;
+        for (; cells != 0; cells &= cells - 1) {
+            RectF rect = renderCache.getCell(Integer.numberOfTrailingZeros(cells));
+            dirty.union((int)Math.floor(rect.left) - margin, (int)Math.floor(rect.top) - margin,
+                    (int)Math.ceil(rect.right) + margin, (int)Math.ceil(rect.bottom) + margin);
         }
+        return true;
     }
 
     /**
-     * Determines the valid flings that can currently occur
+     * Updates the game score
+     * @param gameView The game view
      */
-    private void determineValidMoves() {
-        canMoveRight = determineCanMoveRight();
-        canMoveLeft = determineCanMoveLeft();
-        canMoveUp = determineCanMoveUp();
-        canMoveDown = determineCanMoveDown();
+    public void updateScore(@NonNull GameView gameView) {
+        gameView.updateScoreView(shown.getScore());
     }
 
     /**
-     * Determines if a right fling is a valid move
-     * @return true if it is
+     * Starts a new game
+     * @param view The game view
      */
-    private boolean determineCanMoveRight() {
-        for (int[] row : board) {
-
-            int startOccupiedCol = -1;
-            for (int col = 0; col < row.length; col++) {
-                if (row[col] != 0) {
-                    startOccupiedCol = col;
-                    break;
-                }
-            }
-            if (startOccupiedCol < 0) {
-                continue;
-            }
-
-            for (int col = startOccupiedCol; col < row.length - 1; col++) {
-                if (row[col] == row[col+1] || (col > startOccupiedCol && row[col] == 0) ||
-                        (row[col+1] == 0)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public void startNewGame(@NonNull View view) {
+        processor.newGame();
+        randomizeColors();
+        ((GameView)view).invalidateBoard();
     }
 
     /**
-     * Determines if a left fling is a valid move
-     * @return true if it is
+     * Takes back the last move, if there is one. The view is redrawn
+     * when the worker publishes the position.
      */
-    private boolean determineCanMoveLeft() {
-        for (int[] row : board) {
-
-            int startOccupiedCol = -1;
-            for (int col = row.length - 1; col >= 0; col--) {
-                if (row[col] != 0) {
-                    startOccupiedCol = col;
-                    break;
-                }
-            }
-            if (startOccupiedCol < 0) {
-                continue;
-            }
-
-            for (int col = startOccupiedCol; col > 0; col--) {
-                if (row[col] == row[col-1] || (col < startOccupiedCol && row[col] == 0) ||
-                        (row[col-1] == 0)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public void undo() {
+        processor.undo();
     }
 
     /**
-     * Determines if an up fling is a valid move
-     * @return true if it is
+     * Plays again the last move taken back, with the same new tile. The
+     * view is redrawn when the worker publishes the position.
      */
-    private boolean determineCanMoveUp() {
-        for (int col = 0; col < board.length; col++) {
-            int startOccupiedRow = -1;
-            for (int row = board.length - 1; row >= 0; row--) {
-                if (board[row][col] != 0) {
-                    startOccupiedRow = row;
-                    break;
-                }
-            }
-            if (startOccupiedRow < 0) {
-                continue;
-            }
-
-            for (int row = startOccupiedRow; row > 0; row--) {
-                if (board[row][col] == board[row-1][col] ||
-                        (row < startOccupiedRow && board[row][col] == 0) ||
-                        (board[row-1][col] == 0)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public void redo() {
+        processor.redo();
     }
 
     /**
-     * Determines if a down fling is a valid move
-     * @return true if it is
+     * Refreshes the screen after the game is restored
      */
-    private boolean determineCanMoveDown() {
-        for (int col = 0; col < board.length; col++) {
-            int startOccupiedRow = -1;
-            for (int row = 0; row < board.length; row++) {
-                if (board[row][col] != 0) {
-                    startOccupiedRow = row;
-                    break;
-                }
-            }
-            if (startOccupiedRow < 0) {
-                continue;
-            }
-
-            for (int row = startOccupiedRow; row < board.length - 1; row++) {
-                if (board[row][col] == board[row+1][col] ||
-                        (row > startOccupiedRow && board[row][col] == 0) ||
-                        (board[row+1][col] == 0)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public void reload(GameView gameView) {
+        updateScore(gameView);
     }
 
     /**
-     * Initializes the game board
+     * Randomizes tile number colors
      */
-    private void initializeBoard() {
-        board = new int[NUM_TILES][NUM_TILES];
-        int[] randStartTileOne = new int[2];
-        int[] randStartTileTwo = new int[2];
-
-        do {
-            randStartTileOne[0] = random.nextInt(NUM_TILES);
-            randStartTileOne[1] = random.nextInt(NUM_TILES);
-            randStartTileTwo[0] = random.nextInt(NUM_TILES);
-            randStartTileTwo[1] = random.nextInt(NUM_TILES);
-        } while (randStartTileOne[0] == randStartTileTwo[0] &&
-                randStartTileOne[1] == randStartTileTwo[1]);
-
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++) {
-                if (row == randStartTileOne[0] && col == randStartTileOne[1] ||
-                        row == randStartTileTwo[0] && col == randStartTileTwo[1]) {
-                    board[row][col] = 2;
-                }
-                else {
-                    board[row][col] = 0;
-                }
-            }
-        }
+    private void randomizeColors() {
+        paletteSeed = colorRandom.nextLong();
+        buildPalette();
     }
 
     /**
-     * Randomizes tile number colors
+     * Generates the tile number colors from the palette seed, for every
+     * tile up to the largest the board can hold
      */
-    @SuppressLint("UseSparseArrays")
-    private void randomizeColors() {
-        tileColors = new HashMap<Integer, Integer>();
+    private void buildPalette() {
+        GameRandom paletteRandom = new GameRandom(paletteSeed);
         int r, g, b;
-        for (int i = 2; i <= 2048; i *= 2) {
-            r = random.nextInt(155) + 100;
-            g = random.nextInt(155) + 100;
-            b = random.nextInt(155) + 100;
-            tileColors.put(i, Color.argb(0xff, r, g, b));
+        palette[0] = Color.LTGRAY;
+        for (int exponent = 1; exponent <= Bitboard.MAX_EXPONENT; exponent++) {
+            r = paletteRandom.nextInt(155) + 100;
+            g = paletteRandom.nextInt(155) + 100;
+            b = paletteRandom.nextInt(155) + 100;
+            palette[exponent] = Color.argb(0xff, r, g, b);
         }
     }
 
@@ -675,6 +562,9 @@ public class Game implements Serializable {
         outlinePaint.setColor(Color.BLACK);
         outlinePaint.setStyle(Paint.Style.STROKE);
         outlinePaint.setStrokeWidth(3f);
+
+        // Smooth scaling for tiles copied from the atlas
+        bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
     }
 
 }
@@ -84,6 +84,22 @@ public class GameActivity extends AppCompatActivity implements GestureDetector.O
         getGameView().startNewGame();
     }
 
+    /**
+     * Handler for the undo button
+     * @param view The current view
+     */
+    public void onUndo(View view) {
+        getGameView().undo();
+    }
+
+    /**
+     * Handler for the redo button
+     * @param view The current view
+     */
+    public void onRedo(View view) {
+        getGameView().redo();
+    }
+
     /**
      * Gets the GameView for this activity
      * @return The GameView
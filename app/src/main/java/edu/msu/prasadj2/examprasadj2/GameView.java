@@ -7,14 +7,21 @@ package edu.msu.prasadj2.examprasadj2;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.Bundle;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.msu.prasadj2.examprasadj2.core.BoardSnapshot;
+import edu.msu.prasadj2.examprasadj2.core.MoveProcessor;
+
 /**
  * Custom view for the 2048 game
  */
@@ -31,6 +38,71 @@ public class GameView extends View {
     // The activity this view is a part of
     private GameActivity gameActivity;
 
+    // Reusable digit buffer for the score text, so score updates do not allocate
+    private final char[] scoreChars = new char[11];
+
+    // Region to redraw on the next frame, empty if none
+    private final Rect dirty = new Rect();
+
+    // Whether a redraw of the dirty region is posted for the next frame
+    private boolean redrawPosted;
+
+    // Redraws the dirty region once per frame, however many times it grew
+    private final Runnable redraw = new Runnable() {
+        @Override
+        public void run() {
+            redrawPosted = false;
+            flushDirty();
+        }
+    };
+
+    // Whether showing the latest snapshot is posted to the UI thread
+    private final AtomicBoolean snapshotPosted = new AtomicBoolean();
+
+    // Shows the latest snapshot on the UI thread
+    private final Runnable showSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            snapshotPosted.set(false);
+            game.showSnapshot(GameView.this);
+        }
+    };
+
+    // Hands snapshots from the game's worker to the UI thread; snapshots
+    // published before the UI thread gets to them are shown as one
+    private final MoveProcessor.Listener snapshotListener = new MoveProcessor.Listener() {
+        @Override
+        public void onSnapshot(BoardSnapshot snapshot) {
+            if (snapshotPosted.compareAndSet(false, true)) {
+                post(showSnapshot);
+            }
+        }
+    };
+
+    // Paces the fling animation to the display's frames
+    private final Choreographer choreographer = Choreographer.getInstance();
+
+    // Whether a frame of the fling animation is posted
+    private boolean animationPosted;
+
+    // Advances the fling animation and redraws its cells, once per frame
+    private final Choreographer.FrameCallback animationFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            boolean running = game.advanceAnimation(frameTimeNanos);
+            if (!game.addDirtyCells(game.getAnimatedCells(), dirty)) {
+                dirty.set(0, 0, getWidth(), getHeight());
+            }
+            flushDirty();
+            if (running) {
+                choreographer.postFrameCallback(this);
+            }
+            else {
+                animationPosted = false;
+            }
+        }
+    };
+
     /**
      * GameView constructor
      * @param context Application context
@@ -68,6 +140,7 @@ public class GameView extends View {
      */
     private void init(AttributeSet attrs, int defStyle) {
         game = new Game();
+        game.setSnapshotListener(snapshotListener);
     }
 
     /**
@@ -76,20 +149,29 @@ public class GameView extends View {
      * @param bundle Bundle to save to
      */
     public void putToBundle(@NonNull String key, @NonNull Bundle bundle) {
-        bundle.putSerializable(key, game);
+        bundle.putParcelable(key, game);
     }
 
     /**
      * Reloads the game state
      */
     public void reload(@NonNull String key, @NonNull Bundle bundle) {
-        game = (Game)bundle.getSerializable(key);
+        game.setSnapshotListener(null);
+        game.cancelAnimation();
+        try {
+            game = bundle.getParcelable(key);
+        }
+        catch (IllegalArgumentException e) {
+            // Saved by an incompatible version; start over
+            game = null;
+        }
         if (game != null) {
             game.reload(this);
         }
         else {
             game = new Game();
         }
+        game.setSnapshotListener(snapshotListener);
     }
 
     /**
@@ -122,9 +204,79 @@ public class GameView extends View {
      * @param score The game score
      */
     public void updateScoreView(int score) {
-        String scoreString = "" + score;
-        scoreView.setText(scoreString);
-        invalidate();
+        int start = scoreChars.length;
+        do {
+            scoreChars[--start] = (char)('0' + score % 10);
+            score /= 10;
+        } while (score > 0);
+        scoreView.setText(scoreChars, start, scoreChars.length - start);
+    }
+
+    /**
+     * Schedules a redraw of some cells of the board. Requests made before
+     * the next frame are merged into one invalidate of their bounds.
+     * @param cells Mask with bit (row * 4 + col) set for each changed cell
+     */
+    public void invalidateCells(int cells) {
+        if (cells == 0) {
+            return;
+        }
+        if (!game.addDirtyCells(cells, dirty)) {
+            // Not laid out yet, so the cells are unknown
+            dirty.set(0, 0, getWidth(), getHeight());
+        }
+        postRedraw();
+    }
+
+    /**
+     * Schedules a redraw of the whole board on the next frame
+     */
+    public void invalidateBoard() {
+        dirty.set(0, 0, getWidth(), getHeight());
+        postRedraw();
+    }
+
+    /**
+     * Animates the fling the game just applied, one step per frame
+     */
+    public void startAnimation() {
+        if (!animationPosted) {
+            animationPosted = true;
+            choreographer.postFrameCallback(animationFrame);
+        }
+    }
+
+    /**
+     * Stops animating when the view leaves the window
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (animationPosted) {
+            choreographer.removeFrameCallback(animationFrame);
+            animationPosted = false;
+        }
+        game.cancelAnimation();
+    }
+
+    /**
+     * Invalidates the dirty region now and empties it
+     */
+    private void flushDirty() {
+        if (!dirty.isEmpty()) {
+            invalidate(dirty.left, dirty.top, dirty.right, dirty.bottom);
+            dirty.setEmpty();
+        }
+    }
+
+    /**
+     * Posts the dirty region redraw for the next frame, unless already posted
+     */
+    private void postRedraw() {
+        if (!redrawPosted) {
+            redrawPosted = true;
+            postOnAnimation(redraw);
+        }
     }
 
     /**
@@ -157,4 +309,18 @@ public class GameView extends View {
         game.startNewGame(this);
     }
 
+    /**
+     * Takes back the last move, if there is one
+     */
+    public void undo() {
+        game.undo();
+    }
+
+    /**
+     * Plays again the last move taken back, if there is one
+     */
+    public void redo() {
+        game.redo();
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2;
+
+import android.graphics.RectF;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+
+/**
+ * Board geometry for drawing, computed once per canvas size.
+ *
+ * Holds the board rectangle and the rectangle of every cell, indexed
+ * like the bitboard's nibbles (row * 4 + col). update() recomputes them
+ * only when the canvas size changes, so drawing a frame does no layout
+ * math or allocation.
+ */
+class RenderCache {
+
+    /**
+     * Number of cells on the board
+     */
+    static final int CELLS = Bitboard.SIZE * Bitboard.SIZE;
+
+    // Fraction of the smaller canvas dimension the board takes up
+    private final float scale;
+
+    // Canvas size the geometry was computed for
+    private int width = -1;
+    private int height = -1;
+
+    // Board rectangle in pixels
+    private final RectF board = new RectF();
+
+    // Rectangle of each cell in pixels
+    private final RectF[] cells = new RectF[CELLS];
+
+    // Width and height of a cell in pixels
+    private float cellSize;
+
+    /**
+     * RenderCache constructor
+     * @param scale Fraction of the smaller canvas dimension the board takes up
+     */
+    RenderCache(float scale) {
+        this.scale = scale;
+        for (int cell = 0; cell < CELLS; cell++) {
+            cells[cell] = new RectF();
+        }
+    }
+
+    /**
+     * Recomputes the geometry if the canvas size changed
+     * @param width Canvas width in pixels
+     * @param height Canvas height in pixels
+     * @return true if the geometry was recomputed
+     */
+    boolean update(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return false;
+        }
+        this.width = width;
+        this.height = height;
+
+        // Center a square board in the canvas
+        int boardSize = (int)(Math.min(width, height) * scale);
+        int marginX = (width - boardSize) / 2;
+        int marginY = (height - boardSize) / 2;
+        board.set(marginX, marginY, marginX + boardSize, marginY + boardSize);
+
+        cellSize = (float)boardSize / Bitboard.SIZE;
+        for (int row = 0; row < Bitboard.SIZE; row++) {
+            for (int col = 0; col < Bitboard.SIZE; col++) {
+                cells[row * Bitboard.SIZE + col].set(
+                        marginX + col * cellSize, marginY + row * cellSize,
+                        marginX + (col + 1) * cellSize, marginY + (row + 1) * cellSize);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the board rectangle
+     * @return The rectangle in pixels, owned by this cache
+     */
+    RectF getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the rectangle of a cell
+     * @param cell Index of the cell, row * 4 + col
+     * @return The rectangle in pixels, owned by this cache
+     */
+    RectF getCell(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Gets the size of a cell
+     * @return Width and height of a cell in pixels
+     */
+    float getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+
+/**
+ * Every tile pre-rendered into one bitmap, so a tile is drawn with a
+ * single drawBitmap instead of a fill, a text and an outline.
+ *
+ * The atlas is a 4 x 4 grid of cell-sized slots; the slot of a tile is
+ * its exponent. Each slot holds the tile's color, its centered label and
+ * its outline, drawn just inside the slot. update() redraws the atlas
+ * only when the cell size or the palette changes.
+ */
+class TileAtlas {
+
+    /**
+     * Label of each tile exponent, from "2" up to the largest tile
+     */
+    static final String[] LABELS = new String[Bitboard.MAX_EXPONENT + 1];
+
+    static {
+        for (int exponent = 1; exponent <= Bitboard.MAX_EXPONENT; exponent++) {
+            LABELS[exponent] = Integer.toString(1 << exponent);
+        }
+    }
+
+    // Slots per row of the atlas
+    private static final int COLUMNS = 4;
+
+    // Source rectangle of each exponent's slot
+    private final Rect[] sources = new Rect[Bitboard.MAX_EXPONENT + 1];
+
+    // The rendered tiles, or null before the first update
+    private Bitmap atlas;
+
+    // Slot size in pixels the atlas was rendered at
+    private int slotSize;
+
+    // Palette seed the atlas was rendered with
+    private long paletteSeed;
+
+    /**
+     * TileAtlas constructor
+     */
+    TileAtlas() {
+        for (int exponent = 0; exponent <= Bitboard.MAX_EXPONENT; exponent++) {
+            sources[exponent] = new Rect();
+        }
+    }
+
+    /**
+     * Renders the tiles again if the cell size or the palette changed
+     * @param cellSize Size of a board cell in pixels
+     * @param paletteSeed Seed the palette was generated from
+     * @param palette Color of each tile exponent
+     * @param fillPaint Paint for the tile color, whose color is changed
+     * @param textPaint Paint for the labels
+     * @param outlinePaint Paint for the outlines
+     * @return true if the atlas was rendered
+     */
+    boolean update(float cellSize, long paletteSeed, int[] palette,
+                   Paint fillPaint, Paint textPaint, Paint outlinePaint) {
+        int size = Math.max(1, Math.round(cellSize));
+        if (atlas != null && size == slotSize && paletteSeed == this.paletteSeed) {
+            return false;
+        }
+
+        if (atlas == null || size != slotSize) {
+            if (atlas != null) {
+                atlas.recycle();
+            }
+            int rows = (sources.length + COLUMNS - 1) / COLUMNS;
+            atlas = Bitmap.createBitmap(COLUMNS * size, rows * size, Bitmap.Config.ARGB_8888);
+        }
+        slotSize = size;
+        this.paletteSeed = paletteSeed;
+
+        atlas.eraseColor(0);
+        Canvas canvas = new Canvas(atlas);
+        float inset = outlinePaint.getStrokeWidth() / 2;
+        float textOffset = (textPaint.descent() + textPaint.ascent()) / 2;
+        for (int exponent = 1; exponent <= Bitboard.MAX_EXPONENT; exponent++) {
+            int left = (exponent % COLUMNS) * size;
+            int top = (exponent / COLUMNS) * size;
+            sources[exponent].set(left, top, left + size, top + size);
+
+            fillPaint.setColor(palette[exponent]);
+            canvas.drawRect(left, top, left + size, top + size, fillPaint);
+            canvas.drawText(LABELS[exponent],
+                    left + size / 2f - textPaint.measureText(LABELS[exponent]) / 2,
+                    top + size / 2f - textOffset, textPaint);
+            canvas.drawRect(left + inset, top + inset, left + size - inset, top + size - inset,
+                    outlinePaint);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the rendered tiles
+     * @return The atlas bitmap, or null before the first update
+     */
+    Bitmap getBitmap() {
+        return atlas;
+    }
+
+    /**
+     * Gets where a tile is in the atlas
+     * @param exponent Exponent of the tile, at least 1
+     * @return The source rectangle, owned by this atlas
+     */
+    Rect getSource(int exponent) {
+        return sources[exponent];
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random-policy games played to the end, by the batch engine and one
+ * engine object at a time. One op plays a whole set of games; the
+ * games and moves counters give the per-game and per-move rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"1024", "65536"})
+    public int games;
+
+    private BatchEngine batch;
+
+    private int[] directions;
+
+    private GameEngine engine;
+
+    private GameRandom random;
+
+    /**
+     * Games and moves played, reported by JMH as rates
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Played {
+        public long games;
+        public long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            games = 0;
+            moves = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        batch = new BatchEngine(games, SpawnPolicy.STANDARD, 1);
+        directions = new int[games];
+        engine = new GameEngine(new GameRandom(1), SpawnPolicy.STANDARD);
+        random = new GameRandom(2);
+    }
+
+    @Benchmark
+    public int batch(final Played played) {
+        batch.newGames(games);
+        BatchEngine.FinishedGames sink = new BatchEngine.FinishedGames() {
+            @Override
+            public void finished(long board, int score, int moves) {
+                played.games++;
+                played.moves += moves;
+            }
+        };
+        while (batch.size() > 0) {
+            batch.randomMoves(directions);
+            batch.move(directions);
+            batch.spawn();
+            batch.compact(sink);
+        }
+        return batch.size();
+    }
+
+    @Benchmark
+    public int oneAtATime(Played played) {
+        int sink = 0;
+        for (int game = 0; game < games; game++) {
+            engine.newGame();
+            int moves = 0;
+            while (!engine.isGameOver()) {
+                int legal = engine.getLegalMoves();
+                int pick = random.nextInt(Integer.bitCount(legal));
+                for (int j = 0; j < pick; j++) {
+                    legal &= legal - 1;
+                }
+                engine.fling(Integer.numberOfTrailingZeros(legal));
+                moves++;
+            }
+            played.games++;
+            played.moves += moves;
+            sink += engine.getScore();
+        }
+        return sink;
+    }
+}
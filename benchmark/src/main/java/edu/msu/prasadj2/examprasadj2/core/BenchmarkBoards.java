@@ -0,0 +1,90 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Fixed corpora of early, mid and late-game boards for the benchmarks.
+ *
+ * Boards are collected from games played with a fixed seed and a simple
+ * corner strategy, so every run benchmarks exactly the same positions.
+ */
+public final class BenchmarkBoards {
+
+    // Number of boards in each corpus
+    public static final int CORPUS_SIZE = 1024;
+
+    // Seed for the games the corpora are collected from
+    private static final long SEED = 2048;
+
+    // Only keep every few boards so a corpus spans many games
+    private static final int STRIDE = 7;
+
+    // Direction preference of the corner strategy
+    private static final int[] PREFERENCE = {
+            Bitboard.DOWN, Bitboard.LEFT, Bitboard.RIGHT, Bitboard.UP};
+
+    /**
+     * Static utility class, not to be instantiated
+     */
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Builds a corpus of boards for a game phase
+     * @param phase "early" (largest tile 32 or less), "mid" (64 to 256)
+     *              or "late" (512 or more)
+     * @return CORPUS_SIZE packed boards
+     */
+    public static long[] corpus(String phase) {
+        int minExponent, maxExponent;
+        switch (phase) {
+            case "early":
+                minExponent = 0;
+                maxExponent = 5;
+                break;
+            case "mid":
+                minExponent = 6;
+                maxExponent = 8;
+                break;
+            case "late":
+                minExponent = 9;
+                maxExponent = Bitboard.MAX_EXPONENT;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+
+        long[] boards = new long[CORPUS_SIZE];
+        int count = 0;
+        int seen = 0;
+        GameEngine engine = new GameEngine(SEED);
+        while (count < CORPUS_SIZE) {
+            if (engine.isGameOver()) {
+                engine.newGame();
+            }
+
+            long board = engine.getBoard();
+            int exponent = Bitboard.maxExponent(board);
+            if (exponent >= minExponent && exponent <= maxExponent && seen++ % STRIDE == 0) {
+                boards[count++] = board;
+            }
+            playCorner(engine);
+        }
+        return boards;
+    }
+
+    /**
+     * Makes one move with the corner strategy
+     * @param engine The game to move in
+     */
+    public static void playCorner(GameEngine engine) {
+        for (int direction : PREFERENCE) {
+            if (engine.fling(direction)) {
+                return;
+            }
+        }
+    }
+}
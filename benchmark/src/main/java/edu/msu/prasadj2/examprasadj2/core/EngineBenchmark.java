@@ -0,0 +1,69 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the GameEngine steps that run after every move,
+ * one op per board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"early", "mid", "late"})
+    public String phase;
+
+    private long[] boards;
+
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.corpus(phase);
+        engine = new GameEngine(1);
+    }
+
+    /**
+     * Restoring a board recomputes the movement flags
+     */
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public boolean determineValidMoves() {
+        boolean sink = false;
+        for (long board : boards) {
+            engine.restore(board, 0);
+            sink ^= engine.isGameOver();
+        }
+        return sink;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public long placeRandomTile() {
+        long sink = 0;
+        for (long board : boards) {
+            if (Bitboard.countEmpty(board) > 0) {
+                sink += engine.placeRandomTile(board);
+            }
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and restore latency of a game: Java serialization of the fields
+ * Game used to serialize, against the GameState encoding that Game now
+ * writes into its Parcel. The encoded sizes are printed at setup. The
+ * history param adds an undo history of that many moves, which the
+ * serialized path saves next to the game as MoveHistory.encode() did.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    /**
+     * The fields Game serialized before it became Parcelable, when it held
+     * the board as tile values and its own java.util.Random
+     */
+    static class SerializedGame implements Serializable {
+        Random random;
+        int score;
+        boolean canMoveLeft, canMoveRight, canMoveUp, canMoveDown;
+        int[][] board;
+        ArrayList<Integer> openTiles;
+        ArrayList<Integer> mergedValues;
+        HashMap<Integer, Integer> tileColors;
+        int boardSize;
+        int marginX;
+        int marginY;
+    }
+
+    @Param({"0", "256"})
+    public int history;
+
+    private SerializedGame serializedGame;
+
+    private GameState state;
+
+    private byte[] serialized;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        GameRandom random = new GameRandom(1);
+        GameEngine engine = new GameEngine(random.split(), SpawnPolicy.TWOS_ONLY);
+        MoveHistory moves = history > 0 ? new MoveHistory(history) : null;
+        if (moves != null) {
+            moves.reset(engine.getBoard(), engine.getScore());
+        }
+        for (int move = 0; move < 300 && !engine.isGameOver(); move++) {
+            BenchmarkBoards.playCorner(engine);
+            if (moves != null) {
+                moves.record(engine.getBoard(), engine.getScore(), engine.getLastSpawn());
+            }
+        }
+
+        serializedGame = new SerializedGame();
+        serializedGame.random = new Random(random.nextLong());
+        serializedGame.score = engine.getScore();
+        serializedGame.canMoveLeft = engine.canMove(Bitboard.LEFT);
+        serializedGame.canMoveRight = engine.canMove(Bitboard.RIGHT);
+        serializedGame.canMoveUp = engine.canMove(Bitboard.UP);
+        serializedGame.canMoveDown = engine.canMove(Bitboard.DOWN);
+        serializedGame.board = new int[Bitboard.SIZE][Bitboard.SIZE];
+        serializedGame.openTiles = new ArrayList<>();
+        for (int cell = 0; cell < Bitboard.SIZE * Bitboard.SIZE; cell++) {
+            int exponent = (int)(engine.getBoard() >>> (cell * 4)) & 0xF;
+            serializedGame.board[cell / Bitboard.SIZE][cell % Bitboard.SIZE] = exponent == 0 ? 0 : 1 << exponent;
+            if (exponent == 0) {
+                serializedGame.openTiles.add(cell);
+            }
+        }
+        serializedGame.mergedValues = new ArrayList<>();
+        serializedGame.tileColors = new HashMap<>();
+        for (int value = 2; value <= 2048; value *= 2) {
+            serializedGame.tileColors.put(value, 0xFF000000 | random.nextInt(0xFFFFFF));
+        }
+        serializedGame.boardSize = 1000;
+        state = new GameState(engine, random.split(), random.nextLong(), moves);
+
+        serialized = serialize();
+        encoded = encode();
+        System.out.println();
+        System.out.println("Bytes: serialized " + serialized.length + ", encoded " + encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(serializedGame);
+        if (state.getHistory() != null) {
+            out.writeObject(state.getHistory().encode());
+        }
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+        Object game = in.readObject();
+        if (state.getHistory() != null) {
+            return MoveHistory.decode((byte[])in.readObject());
+        }
+        return game;
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return state.encode();
+    }
+
+    @Benchmark
+    public GameState decode() {
+        return GameState.decode(encoded);
+    }
+}
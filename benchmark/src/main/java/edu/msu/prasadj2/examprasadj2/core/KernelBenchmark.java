@@ -0,0 +1,67 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Boards moved per second by the scalar and Vector API move kernels,
+ * one op per board. The vector kernel is only available when the
+ * benchmarks are built with the simd module (see benchmark/build.gradle).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"LEFT", "UP"})
+    public String direction;
+
+    private MoveKernel moveKernel;
+
+    private int fling;
+
+    private long[] corpus;
+
+    private long[] boards;
+
+    private int[] scores;
+
+    @Setup
+    public void setUp() {
+        moveKernel = kernel.equals("vector") ? MoveKernels.vector() : MoveKernels.scalar();
+        if (moveKernel == null) {
+            throw new IllegalStateException("The vector kernel is not available on this JVM");
+        }
+        fling = direction.equals("UP") ? Bitboard.UP : Bitboard.LEFT;
+        corpus = BenchmarkBoards.corpus("mid");
+        boards = new long[corpus.length];
+        scores = new int[corpus.length];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public int[] move() {
+        System.arraycopy(corpus, 0, boards, 0, corpus.length);
+        moveKernel.move(boards, scores, boards.length, fling);
+        return scores;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a single fling in each direction, one op per board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    @Param({"early", "mid", "late"})
+    public String phase;
+
+    private long[] boards;
+
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.corpus(phase);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public long moveRight() {
+        return moveAll(Bitboard.RIGHT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public long moveUp() {
+        return moveAll(Bitboard.UP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public long moveLeft() {
+        return moveAll(Bitboard.LEFT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public long moveDown() {
+        return moveAll(Bitboard.DOWN);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public int legalMoves() {
+        int sink = 0;
+        for (long board : boards) {
+            sink += Bitboard.legalMoves(board);
+        }
+        return sink;
+    }
+
+    /**
+     * Moves and scores every board in the corpus
+     * @param direction The fling direction
+     * @return A value depending on every result, so nothing is optimized away
+     */
+    private long moveAll(int direction) {
+        long sink = 0;
+        for (long board : boards) {
+            sink += Bitboard.move(board, direction) + Bitboard.score(board, direction);
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of complete games played to game over with the corner
+ * strategy, one op per game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(1);
+    }
+
+    @Benchmark
+    public int playToGameOver() {
+        engine.newGame();
+        while (!engine.isGameOver()) {
+            BenchmarkBoards.playCorner(engine);
+        }
+        return engine.getScore();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the row tables
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowTablesBenchmark {
+
+    private final char[] left = new char[RowTables.ROW_COUNT];
+
+    private final char[] right = new char[RowTables.ROW_COUNT];
+
+    private final int[] score = new int[RowTables.ROW_COUNT];
+
+    /**
+     * Class-load cost paid on the first move: a single cold shot per fork
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public int classLoad() {
+        return RowTables.LEFT.length;
+    }
+
+    /**
+     * Cost of rebuilding the tables once the builder has been compiled
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public int rebuild() {
+        RowTables.build(left, right, score);
+        return score[RowTables.ROW_COUNT - 1];
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.BenchmarkBoards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluations per second of the board evaluators, one op per board, and
+ * the cost of building the heuristic's line table
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({"early", "mid", "late"})
+    public String phase;
+
+    private long[] boards;
+
+    private BoardEvaluator heuristic;
+
+    private BoardEvaluator emptyCells;
+
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.corpus(phase);
+        heuristic = new HeuristicEvaluator();
+        emptyCells = new EmptyCellEvaluator(1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public double heuristic() {
+        return evaluateAll(heuristic);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public double emptyCells() {
+        return evaluateAll(emptyCells);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public BoardEvaluator buildHeuristic() {
+        return new HeuristicEvaluator();
+    }
+
+    /**
+     * Evaluates every board in the corpus
+     * @param evaluator The evaluator
+     * @return The sum of the evaluations, so nothing is optimized away
+     */
+    private double evaluateAll(BoardEvaluator evaluator) {
+        double sink = 0;
+        for (long board : boards) {
+            sink += evaluator.evaluate(board);
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.BenchmarkBoards;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Moves and playouts per second of the Monte Carlo player for pools of
+ * 1 to N worker threads and both rollout policies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    @Param({"mid"})
+    public String phase;
+
+    @Param({"100"})
+    public int playouts;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"RANDOM", "GREEDY"})
+    public MonteCarloPlayer.RolloutPolicy rollout;
+
+    private long[] boards;
+
+    private int next;
+
+    private ForkJoinPool pool;
+
+    private MonteCarloPlayer player;
+
+    /**
+     * Playouts run, reported by JMH as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Playouts {
+        public long playouts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            playouts = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.corpus(phase);
+        pool = new ForkJoinPool(threads);
+        player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 1);
+        player.setPlayouts(playouts);
+        player.setRolloutPolicy(rollout);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int search(Playouts counter) {
+        long board = boards[next];
+        next = (next + 1) % boards.length;
+        int move = player.search(board).getMove();
+        counter.playouts += player.getLastPlayouts();
+        return move;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.BenchmarkBoards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of making a saved n-tuple network usable, loaded into the heap
+ * versus memory-mapped, for a small network (five 4-tuples, 1.3 MB) and
+ * a large one (four 6-tuples, 256 MB), and evaluations per second of
+ * each. Mapping cost should not grow with the file.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class NetworkLoadBenchmark {
+
+    // Four 6-tuples: two rectangles and two L shapes
+    private static final int[][] SIX_TUPLES = {
+            {0, 1, 2, 4, 5, 6},
+            {4, 5, 6, 8, 9, 10},
+            {0, 1, 2, 3, 4, 5},
+            {4, 5, 6, 7, 8, 9},
+    };
+
+    @Param({"small", "large"})
+    public String size;
+
+    private File file;
+
+    private long[] boards;
+
+    private NTupleNetwork heap;
+
+    private MappedNTupleNetwork mapped;
+
+    @Setup
+    public void setUp() throws IOException {
+        NTupleNetwork network = new NTupleNetwork(
+                size.equals("large") ? SIX_TUPLES : NTupleNetwork.LINES_AND_SQUARES);
+        boards = BenchmarkBoards.corpus("mid");
+        Random random = new Random(1);
+        for (long board : boards) {
+            network.update(board, random.nextFloat());
+        }
+
+        file = File.createTempFile("network", ".bin");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        try {
+            network.save(out);
+        }
+        finally {
+            out.close();
+        }
+        heap = network;
+        mapped = MappedNTupleNetwork.open(file);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public NTupleNetwork loadIntoHeap() throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        try {
+            return NTupleNetwork.load(in);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public MappedNTupleNetwork map() throws IOException {
+        return MappedNTupleNetwork.open(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public float evaluateHeap() {
+        float sink = 0;
+        for (long board : boards) {
+            sink += heap.value(board);
+        }
+        return sink;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BenchmarkBoards.CORPUS_SIZE)
+    public float evaluateMapped() {
+        float sink = 0;
+        for (long board : boards) {
+            sink += mapped.value(board);
+        }
+        return sink;
+    }
+}
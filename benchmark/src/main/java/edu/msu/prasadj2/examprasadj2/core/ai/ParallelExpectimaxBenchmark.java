@@ -0,0 +1,98 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.BenchmarkBoards;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scaling of the parallel search: searches and nodes per second for pools
+ * of 1 to N worker threads. Dividing a thread count's score by the single
+ * thread score gives the speedup. Pass -p threads=... to match the cores
+ * of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelExpectimaxBenchmark {
+
+    @Param({"mid", "late"})
+    public String phase;
+
+    @Param({"3"})
+    public int depth;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"0", "64"})
+    public int tableMegabytes;
+
+    private long[] boards;
+
+    private int next;
+
+    private ForkJoinPool pool;
+
+    private ParallelExpectimax search;
+
+    /**
+     * Nodes evaluated, reported by JMH as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.corpus(phase);
+        pool = new ForkJoinPool(threads);
+        search = new ParallelExpectimax(new EmptyCellEvaluator(16), SpawnPolicy.STANDARD, pool);
+        search.setMaxDepth(depth);
+        if (tableMegabytes > 0) {
+            search.setTranspositionTable(new TranspositionTable(tableMegabytes));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int search(Nodes counter) {
+        long board = boards[next];
+        next = (next + 1) % boards.length;
+        SearchResult result = search.search(board);
+        counter.nodes += result.getNodes();
+        return result.getMove();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Training throughput of the n-tuple trainer in games per second, one op
+ * per game. Divide by the thread count for games per second per core.
+ * The network keeps learning across iterations, and games get longer as
+ * it improves, so later iterations are slower than early ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TrainerBenchmark {
+
+    // Games played per benchmark invocation
+    private static final int GAMES = 64;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private NTupleTrainer trainer;
+
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        trainer = new NTupleTrainer(new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES),
+                SpawnPolicy.STANDARD);
+        trainer.setThreads(threads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public TrainingResult train() throws Exception {
+        return trainer.train(GAMES, seed++);
+    }
+}
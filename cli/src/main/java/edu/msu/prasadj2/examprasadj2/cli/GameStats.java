@@ -0,0 +1,175 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+
+import java.util.Locale;
+
+/**
+ * Running statistics of finished games.
+ *
+ * Each game is folded in as it ends and then forgotten: scores and move
+ * counts go into quantile sketches and the largest tile into a histogram
+ * indexed by its exponent, so the memory used does not grow with the
+ * number of games. Statistics kept by different threads are combined
+ * with merge(). Not thread safe.
+ */
+public final class GameStats {
+
+    // Percentiles reported in the summary
+    private static final int[] PERCENTILES = {1, 10, 25, 50, 75, 90, 99};
+
+    // Final scores
+    private final QuantileSketch scores = new QuantileSketch();
+
+    // Flings per game
+    private final QuantileSketch moves = new QuantileSketch();
+
+    // Number of games by the exponent of their largest tile
+    private final long[] maxTiles = new long[Bitboard.MAX_EXPONENT + 1];
+
+    /**
+     * Adds a finished game
+     * @param board The final packed board
+     * @param score The final score
+     * @param moveCount Number of flings played
+     */
+    public void record(long board, int score, int moveCount) {
+        scores.add(score);
+        moves.add(moveCount);
+        maxTiles[Bitboard.maxExponent(board)]++;
+    }
+
+    /**
+     * Adds all the games of other statistics to these
+     * @param other The statistics to add, left unchanged
+     */
+    public void merge(GameStats other) {
+        scores.merge(other.scores);
+        moves.merge(other.moves);
+        for (int i = 0; i < maxTiles.length; i++) {
+            maxTiles[i] += other.maxTiles[i];
+        }
+    }
+
+    /**
+     * Gets the number of games
+     * @return The game count
+     */
+    public long getGames() {
+        return scores.getCount();
+    }
+
+    /**
+     * Gets the final scores
+     * @return Sketch of the scores
+     */
+    public QuantileSketch getScores() {
+        return scores;
+    }
+
+    /**
+     * Gets the flings per game
+     * @return Sketch of the move counts
+     */
+    public QuantileSketch getMoves() {
+        return moves;
+    }
+
+    /**
+     * Gets the number of games whose largest tile had an exponent
+     * @param exponent The exponent, from 0 to Bitboard.MAX_EXPONENT
+     * @return The game count
+     */
+    public long getMaxTileCount(int exponent) {
+        return maxTiles[exponent];
+    }
+
+    /**
+     * Gets the fraction of games that reached a tile
+     * @param exponent Exponent of the tile, 11 for 2048
+     * @return Fraction of games with a tile at least that large, 0 if none
+     */
+    public double getReachedFraction(int exponent) {
+        long reached = 0;
+        for (int i = exponent; i < maxTiles.length; i++) {
+            reached += maxTiles[i];
+        }
+        return getGames() == 0 ? 0 : (double)reached / getGames();
+    }
+
+    /**
+     * Writes the statistics as the members of a JSON object
+     * @param json Receives "games", "score", "moves", "maxTile" and
+     *             "reached", without the enclosing braces
+     */
+    public void appendJson(StringBuilder json) {
+        json.append("\"games\": ").append(getGames()).append(",\n");
+        json.append("  \"score\": ");
+        appendSketch(json, scores);
+        json.append(",\n  \"moves\": ");
+        appendSketch(json, moves);
+
+        // Tile values as keys, smallest first, omitting tiles never on top
+        json.append(",\n  \"maxTile\": {");
+        String separator = "";
+        for (int exponent = 0; exponent < maxTiles.length; exponent++) {
+            if (maxTiles[exponent] > 0) {
+                json.append(separator).append('"').append(tileValue(exponent)).append("\": ")
+                        .append(maxTiles[exponent]);
+                separator = ", ";
+            }
+        }
+        json.append("},\n  \"reached\": {");
+        separator = "";
+        for (int exponent = 0; exponent < maxTiles.length; exponent++) {
+            if (maxTiles[exponent] > 0) {
+                json.append(separator).append('"').append(tileValue(exponent)).append("\": ")
+                        .append(format(getReachedFraction(exponent)));
+                separator = ", ";
+            }
+        }
+        json.append('}');
+    }
+
+    /**
+     * Writes a sketch as a JSON object of its bounds, mean and percentiles,
+     * the percentiles rounded to whole numbers like the values
+     * @param json Receives the object
+     * @param sketch The sketch
+     */
+    private static void appendSketch(StringBuilder json, QuantileSketch sketch) {
+        json.append("{\"min\": ").append(sketch.getMin());
+        json.append(", \"mean\": ").append(format(sketch.getMean()));
+        for (int percentile : PERCENTILES) {
+            json.append(", \"p").append(percentile).append("\": ")
+                    .append(Math.round(sketch.quantile(percentile / 100.0)));
+        }
+        json.append(", \"max\": ").append(sketch.getMax()).append('}');
+    }
+
+    /**
+     * Gets the value of a tile
+     * @param exponent Exponent of the tile, 0 for an empty cell
+     * @return 2 to the exponent, or 0 for an empty cell
+     */
+    private static int tileValue(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    /**
+     * Formats a number for JSON, without a fraction if it is whole
+     * @param value The number
+     * @return The number with at most 4 decimals
+     */
+    static String format(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long)value);
+        }
+        return String.format(Locale.US, "%.4f", value);
+    }
+}
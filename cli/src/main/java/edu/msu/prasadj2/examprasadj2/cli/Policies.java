@@ -0,0 +1,157 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.ai.BoardEvaluator;
+import edu.msu.prasadj2.examprasadj2.core.ai.Expectimax;
+import edu.msu.prasadj2.examprasadj2.core.ai.HeuristicEvaluator;
+import edu.msu.prasadj2.examprasadj2.core.ai.TranspositionTable;
+
+/**
+ * The policies self-play can use, each as a Policy.Factory.
+ */
+public final class Policies {
+
+    /**
+     * Size of each search worker's transposition table
+     */
+    public static final int SEARCH_TABLE_MEGABYTES = 16;
+
+    private Policies() {
+    }
+
+    /**
+     * A uniformly random legal fling
+     * @return The factory
+     */
+    public static Policy.Factory random() {
+        return new Policy.Factory() {
+            @Override
+            public Policy create() {
+                return new Stateless() {
+                    @Override
+                    public int move(long board, int legalMoves, GameRandom random) {
+                        int pick = random.nextInt(Integer.bitCount(legalMoves));
+                        for (int i = 0; i < pick; i++) {
+                            legalMoves &= legalMoves - 1;
+                        }
+                        return Integer.numberOfTrailingZeros(legalMoves);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The legal fling that merges the most, the first in direction order
+     * on ties
+     * @return The factory
+     */
+    public static Policy.Factory greedy() {
+        return new Policy.Factory() {
+            @Override
+            public Policy create() {
+                return new Stateless() {
+                    @Override
+                    public int move(long board, int legalMoves, GameRandom random) {
+                        int best = -1;
+                        int bestScore = -1;
+                        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                            if (Bitboard.canMove(legalMoves, direction)
+                                    && Bitboard.score(board, direction) > bestScore) {
+                                bestScore = Bitboard.score(board, direction);
+                                best = direction;
+                            }
+                        }
+                        return best;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The best fling found by an expectimax search of the heuristic
+     * evaluator. Each worker has its own search and transposition table;
+     * the table is cleared between games so every game plays the same
+     * whichever worker runs it.
+     * @param depth Depth of the searches, at least 1
+     * @param spawnPolicy The spawn rules the games are played with
+     * @return The factory
+     */
+    public static Policy.Factory search(final int depth, final SpawnPolicy spawnPolicy) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        final HeuristicEvaluator evaluator = new HeuristicEvaluator();
+        return new Policy.Factory() {
+            @Override
+            public Policy create() {
+                final Expectimax search = new Expectimax(evaluator, spawnPolicy);
+                final TranspositionTable table = new TranspositionTable(SEARCH_TABLE_MEGABYTES);
+                search.setMaxDepth(depth);
+                search.setTranspositionTable(table);
+                return new Policy() {
+                    @Override
+                    public void newGame() {
+                        table.clear();
+                    }
+
+                    @Override
+                    public int move(long board, int legalMoves, GameRandom random) {
+                        return search.search(board).getMove();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The legal fling that maximizes its merge score plus the learned
+     * value of the board it leads to, as NTupleTrainer plays
+     * @param network A trained network, shared by every worker so it must
+     *                be thread safe, like a MappedNTupleNetwork
+     * @return The factory
+     */
+    public static Policy.Factory learned(final BoardEvaluator network) {
+        return new Policy.Factory() {
+            @Override
+            public Policy create() {
+                return new Stateless() {
+                    @Override
+                    public int move(long board, int legalMoves, GameRandom random) {
+                        int best = -1;
+                        double bestValue = Double.NEGATIVE_INFINITY;
+                        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                            if (!Bitboard.canMove(legalMoves, direction)) {
+                                continue;
+                            }
+                            double value = Bitboard.score(board, direction)
+                                    + network.evaluate(Bitboard.move(board, direction));
+                            if (value > bestValue) {
+                                bestValue = value;
+                                best = direction;
+                            }
+                        }
+                        return best;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * A policy with nothing to reset between games
+     */
+    private abstract static class Stateless implements Policy {
+        @Override
+        public void newGame() {
+        }
+    }
+}
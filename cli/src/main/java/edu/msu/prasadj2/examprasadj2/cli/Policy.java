@@ -0,0 +1,43 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+
+/**
+ * Picks the flings of self-play games.
+ *
+ * Each worker thread gets its own policy from a Policy.Factory, so
+ * policies may keep state such as a transposition table without locks.
+ */
+public interface Policy {
+
+    /**
+     * Creates a policy for each worker thread
+     */
+    interface Factory {
+
+        /**
+         * Creates a policy
+         * @return A policy owned by the calling thread
+         */
+        Policy create();
+    }
+
+    /**
+     * Called before the first fling of every game
+     */
+    void newGame();
+
+    /**
+     * Picks a fling
+     * @param board The packed board
+     * @param legalMoves Its legal flings, at least one
+     * @param random The game's random stream, for policies that need one
+     * @return One of the legal flings
+     */
+    int move(long board, int legalMoves, GameRandom random);
+}
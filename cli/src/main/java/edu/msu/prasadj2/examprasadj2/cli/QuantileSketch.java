@@ -0,0 +1,196 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantiles of non-negative values with a bounded relative error.
+ *
+ * Values are counted in logarithmic buckets: bucket i holds the values in
+ * (gamma^(i-1), gamma^i], with gamma = (1 + accuracy) / (1 - accuracy),
+ * and a quantile is answered with the middle of its bucket, which is
+ * within accuracy of the true value. Memory grows with the logarithm of
+ * the largest value, never with the number of values, and two sketches
+ * with the same accuracy merge exactly by adding their counts, so each
+ * thread can keep its own and merge them at the end. Not thread safe.
+ */
+public final class QuantileSketch {
+
+    /**
+     * Default relative accuracy of the quantiles
+     */
+    public static final double DEFAULT_ACCURACY = 0.01;
+
+    // Relative accuracy of the quantiles
+    private final double accuracy;
+
+    // Ratio between the bounds of a bucket
+    private final double gamma;
+
+    // Natural logarithm of gamma
+    private final double logGamma;
+
+    // Number of values in each bucket, grown as larger values arrive
+    private long[] counts = new long[64];
+
+    // Number of zeros, which no bucket can hold
+    private long zeros;
+
+    // Number of values
+    private long count;
+
+    // Sum of the values
+    private long sum;
+
+    // Smallest and largest value
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * QuantileSketch constructor with the default accuracy
+     */
+    public QuantileSketch() {
+        this(DEFAULT_ACCURACY);
+    }
+
+    /**
+     * QuantileSketch constructor
+     * @param accuracy Relative accuracy of the quantiles, between 0 and 1
+     */
+    public QuantileSketch(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) {
+            throw new IllegalArgumentException("accuracy must be between 0 and 1");
+        }
+        this.accuracy = accuracy;
+        this.gamma = (1 + accuracy) / (1 - accuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds a value
+     * @param value The value, at least 0
+     */
+    public void add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative");
+        }
+        if (value == 0) {
+            zeros++;
+        }
+        else {
+            int bucket = bucket(value);
+            if (bucket >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(bucket + 1, 2 * counts.length));
+            }
+            counts[bucket]++;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all the values of another sketch to this one
+     * @param other A sketch with the same accuracy, left unchanged
+     */
+    public void merge(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("sketches must have the same accuracy");
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeros += other.zeros;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets a quantile of the values
+     * @param q The quantile, from 0 for the smallest value to 1 for the largest
+     * @return The value at that quantile within the accuracy, or 0 if
+     * there are no values
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("q must be from 0 to 1");
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        // Rank of the wanted value, counted from 0
+        long rank = (long)(q * (count - 1));
+        if (rank < zeros) {
+            return 0;
+        }
+        long seen = zeros;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double value = 2 * Math.pow(gamma, i) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of values
+     * @return The value count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest value
+     * @return The exact minimum, or 0 if there are no values
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Gets the largest value
+     * @return The exact maximum, or 0 if there are no values
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Gets the mean of the values
+     * @return The exact mean, or 0 if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double)sum / count;
+    }
+
+    /**
+     * Gets the relative accuracy of the quantiles
+     * @return The accuracy
+     */
+    public double getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Finds the bucket of a value
+     * @param value The value, at least 1
+     * @return The smallest i with value <= gamma^i
+     */
+    private int bucket(long value) {
+        return (int)Math.ceil(Math.log(value) / logGamma);
+    }
+}
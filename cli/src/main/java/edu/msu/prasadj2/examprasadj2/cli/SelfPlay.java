@@ -0,0 +1,375 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.ai.MappedNTupleNetwork;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games headlessly and summarizes them.
+ *
+ * Worker threads take game numbers from a shared counter until all the
+ * games are played. Game i is seeded from the run seed and i alone, and
+ * each worker folds its games into its own GameStats, merged at the end,
+ * so a run gives the same statistics whatever the number of threads.
+ *
+ * From the command line:
+ *
+ *   --games N        games to play (default 1000)
+ *   --policy NAME    random, greedy, search or learned (default greedy)
+ *   --depth D        depth of the search policy (default 2)
+ *   --network FILE   network of the learned policy (see NTupleNetwork.save)
+ *   --threads T      worker threads (default: one per core)
+ *   --seed S         seed of the run (default 1)
+ *   --progress SEC   seconds between progress lines on stderr, 0 for none
+ *   --output FILE    where to write the JSON summary (default stdout)
+ */
+public class SelfPlay {
+
+    // Creates each worker's policy
+    private final Policy.Factory policies;
+
+    // The spawn rules the games are played with
+    private final SpawnPolicy spawnPolicy;
+
+    // Number of worker threads
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Games finished so far in the current run
+    private final AtomicLong finished = new AtomicLong();
+
+    /**
+     * SelfPlay constructor
+     * @param policies Creates the policy of each worker thread
+     * @param spawnPolicy The spawn rules the games are played with
+     */
+    public SelfPlay(Policy.Factory policies, SpawnPolicy spawnPolicy) {
+        this.policies = policies;
+        this.spawnPolicy = spawnPolicy;
+    }
+
+    /**
+     * Sets the number of worker threads
+     * @param threads Thread count, at least 1; defaults to the core count
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return The thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the number of games finished so far; safe to call from any
+     * thread while run() is in progress
+     * @return The game count
+     */
+    public long getFinished() {
+        return finished.get();
+    }
+
+    /**
+     * Plays a number of games
+     * @param games Number of games to play
+     * @param seed Seed of the run
+     * @param progressMillis Milliseconds between calls to progress, 0 for none
+     * @param progress Called on the calling thread while games are
+     *                 played, or null
+     * @return Statistics of all the games
+     * @throws InterruptedException If interrupted while waiting for the workers
+     * @throws IllegalStateException If a policy picks a fling that is not
+     * legal, for example from a network whose values are NaN; the other
+     * workers stop after their current game
+     */
+    public GameStats run(final long games, final long seed, long progressMillis, Runnable progress)
+            throws InterruptedException {
+        final AtomicLong next = new AtomicLong();
+        finished.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<GameStats>> futures = new ArrayList<>();
+        GameStats stats = new GameStats();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<GameStats>() {
+                    @Override
+                    public GameStats call() {
+                        Policy policy = policies.create();
+                        GameStats local = new GameStats();
+                        long game;
+                        try {
+                            while ((game = next.getAndIncrement()) < games) {
+                                playGame(policy, new GameRandom(seed + game), local);
+                                finished.incrementAndGet();
+                            }
+                        }
+                        catch (RuntimeException e) {
+                            // Hand out no more games to the other workers
+                            next.set(games);
+                            throw e;
+                        }
+                        return local;
+                    }
+                }));
+            }
+            executor.shutdown();
+
+            if (progress != null && progressMillis > 0) {
+                while (!executor.awaitTermination(progressMillis, TimeUnit.MILLISECONDS)) {
+                    progress.run();
+                }
+            }
+            for (Future<GameStats> future : futures) {
+                stats.merge(future.get());
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return stats;
+    }
+
+    /**
+     * Plays one game to the end
+     * @param policy The worker's policy
+     * @param random The game's random stream
+     * @param stats Receives the finished game
+     * @throws IllegalStateException If the policy picks a fling that is
+     * not legal
+     */
+    private void playGame(Policy policy, GameRandom random, GameStats stats) {
+        GameEngine engine = new GameEngine(random.split(), spawnPolicy);
+        policy.newGame();
+        int moves = 0;
+        while (!engine.isGameOver()) {
+            int move = policy.move(engine.getBoard(), engine.getLegalMoves(), random);
+            if (!engine.canMove(move)) {
+                // The fling would leave the board as it is, forever
+                throw new IllegalStateException("Policy picked fling " + move + ", which is not legal on board 0x"
+                        + Long.toHexString(engine.getBoard()));
+            }
+            engine.fling(move);
+            moves++;
+        }
+        stats.record(engine.getBoard(), engine.getScore(), moves);
+    }
+
+    /**
+     * Runs self-play from the command line
+     * @param args The options described above
+     */
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args, System.out, System.err));
+        }
+        catch (InterruptedException e) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs self-play from command-line options
+     * @param args The options
+     * @param out Receives the summary when there is no --output
+     * @param err Receives progress and errors
+     * @return The exit status: 0 on success, 1 if the summary or network
+     * cannot be read or written or the policy picks an illegal fling, 2
+     * for bad options
+     * @throws InterruptedException If interrupted while playing
+     */
+    static int run(String[] args, PrintStream out, final PrintStream err) throws InterruptedException {
+        long games = 1000;
+        String policyName = "greedy";
+        int depth = 2;
+        File network = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        double progressSeconds = 5;
+        File output = null;
+
+        Policy.Factory policies;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--games":
+                        games = Long.parseLong(value);
+                        break;
+                    case "--policy":
+                        policyName = value;
+                        break;
+                    case "--depth":
+                        depth = Integer.parseInt(value);
+                        break;
+                    case "--network":
+                        network = new File(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--progress":
+                        progressSeconds = Double.parseDouble(value);
+                        break;
+                    case "--output":
+                        output = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            if (games < 0) {
+                throw new IllegalArgumentException("--games must not be negative");
+            }
+            policies = createPolicies(policyName, depth, network);
+        }
+        catch (IllegalArgumentException e) {
+            // NumberFormatException included
+            err.println(e.getMessage());
+            err.println("Usage: SelfPlay [--games N] [--policy random|greedy|search|learned]"
+                    + " [--depth D] [--network FILE] [--threads T] [--seed S]"
+                    + " [--progress SEC] [--output FILE]");
+            return 2;
+        }
+        catch (IOException e) {
+            err.println("Cannot read network: " + e.getMessage());
+            return 1;
+        }
+
+        final SelfPlay selfPlay = new SelfPlay(policies, SpawnPolicy.STANDARD);
+        try {
+            selfPlay.setThreads(threads);
+        }
+        catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return 2;
+        }
+
+        final long start = System.nanoTime();
+        final long total = games;
+        GameStats stats;
+        try {
+            stats = selfPlay.run(games, seed, (long)(progressSeconds * 1000), new Runnable() {
+                @Override
+                public void run() {
+                    long done = selfPlay.getFinished();
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    err.println(String.format(Locale.US, "%d/%d games, %.1f games/s",
+                            done, total, done / seconds));
+                }
+            });
+        }
+        catch (IllegalStateException e) {
+            err.println("Self-play failed: " + e.getMessage());
+            return 1;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        String summary = summary(policyName, threads, seed, elapsed, stats);
+        if (output == null) {
+            out.print(summary);
+            out.flush();
+            return 0;
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8)) {
+            writer.write(summary);
+        }
+        catch (IOException e) {
+            err.println("Cannot write summary: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates the policy named on the command line
+     * @param name random, greedy, search or learned
+     * @param depth Depth of the search policy
+     * @param network Network of the learned policy, or null
+     * @return The policy factory
+     * @throws IOException If the network cannot be opened
+     */
+    private static Policy.Factory createPolicies(String name, int depth, File network) throws IOException {
+        switch (name) {
+            case "random":
+                return Policies.random();
+            case "greedy":
+                return Policies.greedy();
+            case "search":
+                return Policies.search(depth, SpawnPolicy.STANDARD);
+            case "learned":
+                if (network == null) {
+                    throw new IllegalArgumentException("The learned policy needs --network");
+                }
+                return Policies.learned(MappedNTupleNetwork.open(network));
+            default:
+                throw new IllegalArgumentException("Unknown policy " + name);
+        }
+    }
+
+    /**
+     * Formats the summary of a run as JSON
+     * @param policy Name of the policy
+     * @param threads Number of worker threads
+     * @param seed Seed of the run
+     * @param nanos Wall-clock time of the run in nanoseconds
+     * @param stats Statistics of the games
+     * @return The JSON object, ending with a newline
+     */
+    static String summary(String policy, int threads, long seed, long nanos, GameStats stats) {
+        double seconds = nanos / 1e9;
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"policy\": \"").append(policy).append("\",\n");
+        json.append("  \"threads\": ").append(threads).append(",\n");
+        json.append("  \"seed\": ").append(seed).append(",\n");
+        json.append("  \"seconds\": ").append(GameStats.format(seconds)).append(",\n");
+        json.append("  \"gamesPerSecond\": ")
+                .append(GameStats.format(seconds == 0 ? 0 : stats.getGames() / seconds)).append(",\n  ");
+        stats.appendJson(json);
+        json.append("\n}\n");
+        return json.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the quantile sketch
+ */
+public class QuantileSketchTest {
+
+    @Test
+    public void quantilesAreWithinTheAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int value = 1; value <= 100000; value++) {
+            sketch.add(value);
+        }
+        assertEquals(100000, sketch.getCount());
+        assertEquals(1, sketch.getMin());
+        assertEquals(100000, sketch.getMax());
+        assertEquals(50000.5, sketch.getMean(), 0);
+        for (double q = 0; q <= 1; q += 0.05) {
+            double expected = 1 + Math.floor(q * 99999);
+            assertEquals(expected, sketch.quantile(q), 0.01 * expected);
+        }
+    }
+
+    @Test
+    public void zerosAreExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.quantile(0.5), 0);
+        for (int i = 0; i < 10; i++) {
+            sketch.add(0);
+        }
+        sketch.add(1000);
+        assertEquals(0, sketch.quantile(0.9), 0);
+        assertEquals(1000, sketch.quantile(1), 0);
+    }
+
+    @Test
+    public void mergingMatchesAddingEverything() {
+        Random random = new Random(1);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 10000; i++) {
+            long value = (long)Math.exp(random.nextDouble() * 20);
+            all.add(value);
+            (i % 3 == 0 ? first : second).add(value);
+        }
+        first.merge(second);
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMin(), first.getMin());
+        assertEquals(all.getMax(), first.getMax());
+        assertEquals(all.getMean(), first.getMean(), 0);
+        for (double q = 0; q <= 1; q += 0.01) {
+            assertEquals(all.quantile(q), first.quantile(q), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDifferentAccuracies() {
+        new QuantileSketch(0.01).merge(new QuantileSketch(0.02));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeValues() {
+        new QuantileSketch().add(-1);
+    }
+}
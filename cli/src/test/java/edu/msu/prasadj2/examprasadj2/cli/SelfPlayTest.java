@@ -0,0 +1,118 @@
+package edu.msu.prasadj2.examprasadj2.cli;
+
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.ai.BoardEvaluator;
+import edu.msu.prasadj2.examprasadj2.core.ai.NTupleNetwork;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the self-play runner
+ */
+public class SelfPlayTest {
+
+    @Test
+    public void statisticsDoNotDependOnThreadCount() throws InterruptedException {
+        String expected = null;
+        for (int threads = 1; threads <= 3; threads++) {
+            SelfPlay selfPlay = new SelfPlay(Policies.random(), SpawnPolicy.STANDARD);
+            selfPlay.setThreads(threads);
+            GameStats stats = selfPlay.run(200, 7, 0, null);
+            assertEquals(200, stats.getGames());
+            assertEquals(200, selfPlay.getFinished());
+
+            String summary = SelfPlay.summary("random", 1, 7, 0, stats);
+            if (expected == null) {
+                expected = summary;
+            }
+            assertEquals(expected, summary);
+        }
+    }
+
+    @Test
+    public void greedyBeatsRandom() throws InterruptedException {
+        GameStats random = new SelfPlay(Policies.random(), SpawnPolicy.STANDARD).run(300, 1, 0, null);
+        GameStats greedy = new SelfPlay(Policies.greedy(), SpawnPolicy.STANDARD).run(300, 1, 0, null);
+        assertTrue(greedy.getScores().getMean() > random.getScores().getMean());
+        assertTrue(greedy.getReachedFraction(8) > random.getReachedFraction(8));
+    }
+
+    @Test
+    public void searchBeatsGreedy() throws InterruptedException {
+        SelfPlay selfPlay = new SelfPlay(Policies.search(2, SpawnPolicy.STANDARD), SpawnPolicy.STANDARD);
+        selfPlay.setThreads(2);
+        GameStats search = selfPlay.run(4, 1, 0, null);
+        GameStats greedy = new SelfPlay(Policies.greedy(), SpawnPolicy.STANDARD).run(4, 1, 0, null);
+        assertTrue(search.getScores().getMean() > 2 * greedy.getScores().getMean());
+        assertTrue(search.getReachedFraction(10) >= 0.5);
+    }
+
+    @Test
+    public void untrainedNetworkPlaysGreedily() throws InterruptedException {
+        NTupleNetwork network = new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES);
+        GameStats learned = new SelfPlay(Policies.learned(network), SpawnPolicy.STANDARD).run(50, 2, 0, null);
+        GameStats greedy = new SelfPlay(Policies.greedy(), SpawnPolicy.STANDARD).run(50, 2, 0, null);
+        assertEquals(SelfPlay.summary("greedy", 1, 2, 0, greedy), SelfPlay.summary("greedy", 1, 2, 0, learned));
+    }
+
+    @Test(timeout = 10000)
+    public void illegalFlingsFailInsteadOfHanging() throws InterruptedException {
+        // A diverged network makes the learned policy find no fling at all
+        BoardEvaluator diverged = new BoardEvaluator() {
+            @Override
+            public double evaluate(long board) {
+                return Double.NaN;
+            }
+        };
+        SelfPlay selfPlay = new SelfPlay(Policies.learned(diverged), SpawnPolicy.STANDARD);
+        selfPlay.setThreads(2);
+        try {
+            selfPlay.run(1000, 1, 0, null);
+            fail("Expected the illegal fling to be reported");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("fling -1"));
+        }
+        assertEquals(0, selfPlay.getFinished());
+    }
+
+    @Test
+    public void histogramCountsEveryGame() throws InterruptedException {
+        GameStats stats = new SelfPlay(Policies.greedy(), SpawnPolicy.STANDARD).run(100, 3, 0, null);
+        long total = 0;
+        for (int exponent = 0; exponent < 16; exponent++) {
+            total += stats.getMaxTileCount(exponent);
+        }
+        assertEquals(100, total);
+        assertEquals(1, stats.getReachedFraction(0), 0);
+        assertTrue(stats.getMoves().getMin() > 0);
+    }
+
+    @Test
+    public void commandLineWritesJson() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = SelfPlay.run(new String[] {"--games", "50", "--policy", "random", "--threads", "2"},
+                new PrintStream(out), new PrintStream(err));
+        assertEquals(0, status);
+        String json = out.toString();
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.contains("\"games\": 50,"));
+        assertTrue(json.contains("\"p50\": "));
+        assertTrue(json.contains("\"maxTile\": {"));
+    }
+
+    @Test
+    public void commandLineRejectsBadOptions() throws InterruptedException {
+        PrintStream err = new PrintStream(new ByteArrayOutputStream());
+        assertEquals(2, SelfPlay.run(new String[] {"--policy", "clever"}, System.out, err));
+        assertEquals(2, SelfPlay.run(new String[] {"--games"}, System.out, err));
+        assertEquals(2, SelfPlay.run(new String[] {"--policy", "learned"}, System.out, err));
+        assertEquals(2, SelfPlay.run(new String[] {"--threads", "0"}, System.out, err));
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Plays many games at once, stored as parallel primitive arrays.
+ *
+ * Game i is boards[i], scores[i], moves[i], its own random state
+ * rngs[i] and its legal move mask legalMoves[i], which doubles as its
+ * alive flag: a game is over when the mask is 0. There is no object per
+ * game, and each step is a tight loop over the arrays: move() applies
+ * one fling per game, spawn() adds a tile to every board that moved,
+ * and compact() drops finished games so later loops skip them. When
+ * every game flings the same way, the move kernel (see MoveKernels)
+ * can process several boards per instruction.
+ *
+ * Each game draws from its own SplitMix64 stream seeded from the batch
+ * seed, so a batch plays out the same whenever it gets the same seed
+ * and moves. Not thread safe: use one batch per thread.
+ */
+public class BatchEngine {
+
+    /**
+     * Receives the games dropped by compact()
+     */
+    public interface FinishedGames {
+
+        /**
+         * Called once per finished game
+         * @param board The final packed board
+         * @param score The final score
+         * @param moves Number of flings played
+         */
+        void finished(long board, int score, int moves);
+    }
+
+    // The rules for new tiles
+    private final SpawnPolicy spawnPolicy;
+
+    // Seeds the games' random streams
+    private final GameRandom random;
+
+    // Packed board of each game
+    private final long[] boards;
+
+    // Score of each game
+    private final int[] scores;
+
+    // Flings played in each game
+    private final int[] moves;
+
+    // SplitMix64 state of each game
+    private final long[] rngs;
+
+    // Legal move mask of each game, 0 once it is over
+    private final byte[] legalMoves;
+
+    // Whether each game's last fling moved, so it needs a new tile
+    private final boolean[] moved;
+
+    // Merge score of each game's last fling, filled by the move kernel
+    private final int[] gained;
+
+    // Applies a single fling to all the boards
+    private MoveKernel kernel = MoveKernels.best();
+
+    // Number of games in the batch
+    private int size;
+
+    /**
+     * BatchEngine constructor
+     * @param capacity Most games the batch can hold
+     * @param spawnPolicy Where new tiles appear and what value they have
+     * @param seed Seed for the games' random streams
+     */
+    public BatchEngine(int capacity, SpawnPolicy spawnPolicy, long seed) {
+        this.spawnPolicy = spawnPolicy;
+        this.random = new GameRandom(seed);
+        boards = new long[capacity];
+        scores = new int[capacity];
+        moves = new int[capacity];
+        rngs = new long[capacity];
+        legalMoves = new byte[capacity];
+        moved = new boolean[capacity];
+        gained = new int[capacity];
+    }
+
+    /**
+     * Sets the kernel move(int) uses. All kernels give the same results.
+     * @param kernel The kernel, not used by another thread at the same
+     *               time; a new MoveKernels.best() by default
+     */
+    public void setMoveKernel(MoveKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Replaces the batch with new games
+     * @param count Number of games, at most the capacity
+     */
+    public void newGames(int count) {
+        if (count < 0 || count > boards.length) {
+            throw new IllegalArgumentException("count must be from 0 to " + boards.length);
+        }
+        size = count;
+        for (int i = 0; i < count; i++) {
+            rngs[i] = random.nextLong();
+            long board = spawn(spawn(0, i), i);
+            boards[i] = board;
+            scores[i] = 0;
+            moves[i] = 0;
+            legalMoves[i] = (byte)Bitboard.legalMoves(board);
+            moved[i] = false;
+        }
+    }
+
+    /**
+     * Applies one fling to every game. A game whose fling would not move
+     * any tiles (including every finished game) is left as it is.
+     * @param directions Fling of each game, one of Bitboard.RIGHT, UP,
+     *                   LEFT or DOWN, or -1 for none, at least size() long
+     * @return Number of games that moved
+     */
+    public int move(int[] directions) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int direction = directions[i];
+            boolean legal = direction >= 0 && ((legalMoves[i] >>> direction) & 1) != 0;
+            if (legal) {
+                long board = boards[i];
+                scores[i] += Bitboard.score(board, direction);
+                boards[i] = Bitboard.move(board, direction);
+                count++;
+            }
+            moved[i] = legal;
+        }
+        return count;
+    }
+
+    /**
+     * Applies the same fling to every game. A game that cannot move that
+     * way (including every finished game) is left as it is.
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     * @return Number of games that moved
+     */
+    public int move(int direction) {
+        // Boards that cannot move come back unchanged with a score of 0
+        kernel.move(boards, gained, size, direction);
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            boolean legal = ((legalMoves[i] >>> direction) & 1) != 0;
+            scores[i] += gained[i];
+            moved[i] = legal;
+            if (legal) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds a tile to every board that moved, then updates their legal
+     * moves. Games with no legal moves left are over.
+     */
+    public void spawn() {
+        for (int i = 0; i < size; i++) {
+            if (moved[i]) {
+                long board = spawn(boards[i], i);
+                boards[i] = board;
+                legalMoves[i] = (byte)Bitboard.legalMoves(board);
+                moves[i]++;
+                moved[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Picks a uniformly random legal fling for every game, from the
+     * game's own random stream
+     * @param directions Receives the fling of each game, -1 for finished
+     *                   games, at least size() long
+     */
+    public void randomMoves(int[] directions) {
+        for (int i = 0; i < size; i++) {
+            int legal = legalMoves[i];
+            if (legal == 0) {
+                directions[i] = -1;
+                continue;
+            }
+            int pick = bounded(next(i), Integer.bitCount(legal));
+            for (int j = 0; j < pick; j++) {
+                legal &= legal - 1;
+            }
+            directions[i] = Integer.numberOfTrailingZeros(legal);
+        }
+    }
+
+    /**
+     * Drops finished games, keeping the others in order
+     * @param sink Receives each dropped game, or null
+     * @return Number of games dropped
+     */
+    public int compact(FinishedGames sink) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (legalMoves[i] == 0) {
+                if (sink != null) {
+                    sink.finished(boards[i], scores[i], moves[i]);
+                }
+                continue;
+            }
+            if (kept != i) {
+                boards[kept] = boards[i];
+                scores[kept] = scores[i];
+                moves[kept] = moves[i];
+                rngs[kept] = rngs[i];
+                legalMoves[kept] = legalMoves[i];
+                moved[kept] = moved[i];
+            }
+            kept++;
+        }
+        int dropped = size - kept;
+        size = kept;
+        return dropped;
+    }
+
+    /**
+     * Gets the number of games in the batch
+     * @return The game count, finished games included until compacted
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the most games the batch can hold
+     * @return The capacity
+     */
+    public int capacity() {
+        return boards.length;
+    }
+
+    /**
+     * Gets a game's board
+     * @param game Index of the game
+     * @return The packed board
+     */
+    public long getBoard(int game) {
+        return boards[game];
+    }
+
+    /**
+     * Gets a game's score
+     * @param game Index of the game
+     * @return The score
+     */
+    public int getScore(int game) {
+        return scores[game];
+    }
+
+    /**
+     * Gets the number of flings a game has played
+     * @param game Index of the game
+     * @return The move count
+     */
+    public int getMoves(int game) {
+        return moves[game];
+    }
+
+    /**
+     * Gets a game's legal flings
+     * @param game Index of the game
+     * @return Mask with bit (1 << direction) set for every valid fling
+     */
+    public int getLegalMoves(int game) {
+        return legalMoves[game];
+    }
+
+    /**
+     * Determines if a game is still being played
+     * @param game Index of the game
+     * @return true if the game has a legal fling
+     */
+    public boolean isAlive(int game) {
+        return legalMoves[game] != 0;
+    }
+
+    /**
+     * Places a random tile on an open spot of a game's board
+     * @param board The packed board, with at least one empty cell
+     * @param game Index of the game whose random stream is used
+     * @return The board with the new tile
+     */
+    private long spawn(long board, int game) {
+        long bits = next(game);
+        int empty = Bitboard.emptyMask(board);
+        int cell = Bitboard.selectCell(empty, bounded(bits, Integer.bitCount(empty)));
+
+        // bounded() picks the cell from the high 32 bits, so the value
+        // comes from the low 32 bits alone, independently of the cell
+        double roll = (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+        long exponent = roll < spawnPolicy.getFourProbability() ? 2 : 1;
+        return board | exponent << (cell * 4);
+    }
+
+    /**
+     * Advances a game's SplitMix64 stream
+     * @param game Index of the game
+     * @return The next 64 random bits
+     */
+    private long next(int game) {
+        return GameRandom.mix(rngs[game] += GameRandom.GOLDEN_GAMMA);
+    }
+
+    /**
+     * Maps the high 32 random bits to a range by multiply-shift. The
+     * bias is below bound / 2^32, negligible for the bounds used here.
+     * @param bits Random bits
+     * @param bound Upper bound (exclusive), from 1 to 16
+     * @return An integer from 0 to bound - 1
+     */
+    private static int bounded(long bits, int bound) {
+        return (int)(((bits >>> 32) * bound) >>> 32);
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Packed 64-bit representation of the 2048 board.
+ *
+ * Each cell holds a 4-bit tile exponent (0 for an empty cell, otherwise
+ * the tile value is 2^exponent). Cell (row, col) lives in nibble
+ * row * 4 + col, so each row is one 16-bit group with column 0 in the
+ * lowest nibble. All four fling directions are reduced to row lookups
+ * in RowTables by transposing the board for vertical flings.
+ */
+public final class Bitboard {
+
+    // Tile count for rows and columns
+    public static final int SIZE = 4;
+
+    // Possible fling directions, also bit indexes in a legal move mask
+    public static final int RIGHT = 0, UP = 1, LEFT = 2, DOWN = 3;
+
+    // Number of fling directions
+    public static final int DIRECTIONS = 4;
+
+    // Legal move mask with every direction set
+    public static final int ALL_MOVES = (1 << RIGHT) | (1 << UP) | (1 << LEFT) | (1 << DOWN);
+
+    // Largest exponent that fits in a nibble (the 32768 tile)
+    public static final int MAX_EXPONENT = 15;
+
+    // Mask for a single 16-bit row
+    private static final long ROW_MASK = 0xFFFFL;
+
+    /**
+     * Static utility class, not to be instantiated
+     */
+    private Bitboard() {
+    }
+
+    /**
+     * Gets the tile exponent at a cell
+     * @param board The packed board
+     * @param row Row index
+     * @param col Column index
+     * @return The exponent, or 0 if the cell is empty
+     */
+    public static int getExponent(long board, int row, int col) {
+        return (int)(board >>> shift(row, col)) & 0xF;
+    }
+
+    /**
+     * Sets the tile exponent at a cell
+     * @param board The packed board
+     * @param row Row index
+     * @param col Column index
+     * @param exponent The new exponent, 0 to clear the cell
+     * @return The updated board
+     */
+    public static long setExponent(long board, int row, int col, int exponent) {
+        int shift = shift(row, col);
+        return (board & ~(0xFL << shift)) | ((long)(exponent & 0xF) << shift);
+    }
+
+    /**
+     * Gets the tile value at a cell
+     * @param board The packed board
+     * @param row Row index
+     * @param col Column index
+     * @return The tile value, or 0 if the cell is empty
+     */
+    public static int getValue(long board, int row, int col) {
+        int exponent = getExponent(board, row, col);
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    /**
+     * Gets one 16-bit row of the board
+     * @param board The packed board
+     * @param row Row index
+     * @return The row bits
+     */
+    public static int getRow(long board, int row) {
+        return (int)((board >>> (row * 16)) & ROW_MASK);
+    }
+
+    /**
+     * Counts the empty cells on the board
+     * @param board The packed board
+     * @return Number of cells with exponent 0
+     */
+    public static int countEmpty(long board) {
+        // Fold every nibble down to its low bit: 1 if the nibble is non-zero
+        long occupied = board | (board >>> 2);
+        occupied = (occupied | (occupied >>> 1)) & 0x1111111111111111L;
+        return SIZE * SIZE - Long.bitCount(occupied);
+    }
+
+    /**
+     * Gets the empty cells of the board as a 16-bit mask
+     * @param board The packed board
+     * @return Mask with bit (row * 4 + col) set for every empty cell
+     */
+    public static int emptyMask(long board) {
+        // Fold every nibble down to its low bit: 1 if the nibble is empty
+        long empty = board | (board >>> 2);
+        empty = ~(empty | (empty >>> 1)) & 0x1111111111111111L;
+
+        // Gather the sixteen low bits into the bottom 16 bits
+        empty = (empty | (empty >>> 3)) & 0x0303030303030303L;
+        empty = (empty | (empty >>> 6)) & 0x000F000F000F000FL;
+        empty = (empty | (empty >>> 12)) & 0x000000FF000000FFL;
+        return (int)((empty | (empty >>> 24)) & 0xFFFF);
+    }
+
+    /**
+     * Finds the k-th set bit of a 16-bit cell mask in constant time
+     * @param mask The cell mask
+     * @param k Index of the set bit to find, less than the mask's bit count
+     * @return The cell index (row * 4 + col) of that bit
+     */
+    public static int selectCell(int mask, int k) {
+        int cell = 0;
+        int count = Integer.bitCount(mask & 0xFF);
+        if (k >= count) {
+            k -= count;
+            mask >>>= 8;
+            cell += 8;
+        }
+        count = Integer.bitCount(mask & 0xF);
+        if (k >= count) {
+            k -= count;
+            mask >>>= 4;
+            cell += 4;
+        }
+        count = Integer.bitCount(mask & 0x3);
+        if (k >= count) {
+            k -= count;
+            mask >>>= 2;
+            cell += 2;
+        }
+        if (k >= (mask & 1)) {
+            cell += 1;
+        }
+        return cell;
+    }
+
+    /**
+     * Gets the largest tile exponent on the board
+     * @param board The packed board
+     * @return The largest exponent
+     */
+    public static int maxExponent(long board) {
+        int max = 0;
+        for (int shift = 0; shift < 64; shift += 4) {
+            int exponent = (int)(board >>> shift) & 0xF;
+            if (exponent > max) {
+                max = exponent;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Transposes the board so rows become columns
+     * @param board The packed board
+     * @return The transposed board
+     */
+    public static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    /**
+     * Mirrors every row of the board left to right
+     * @param board The packed board
+     * @return The mirrored board
+     */
+    public static long reverseRows(long board) {
+        board = ((board & 0x0F0F0F0F0F0F0F0FL) << 4) | ((board >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+        return ((board & 0x00FF00FF00FF00FFL) << 8) | ((board >>> 8) & 0x00FF00FF00FF00FFL);
+    }
+
+    /**
+     * Mirrors a single 16-bit row left to right
+     * @param row The row bits
+     * @return The mirrored row
+     */
+    public static int reverseRow(int row) {
+        return ((row >>> 12) & 0x000F) | ((row >>> 4) & 0x00F0) |
+                ((row << 4) & 0x0F00) | ((row << 12) & 0xF000);
+    }
+
+    /**
+     * Applies a fling to the board
+     * @param board The packed board
+     * @param direction One of RIGHT, UP, LEFT or DOWN
+     * @return The board after the tiles slide and merge
+     */
+    public static long move(long board, int direction) {
+        switch (direction) {
+            case RIGHT:
+                return moveRowsRight(board);
+            case UP:
+                return transpose(moveRowsLeft(transpose(board)));
+            case LEFT:
+                return moveRowsLeft(board);
+            case DOWN:
+                return transpose(moveRowsRight(transpose(board)));
+            default:
+                return board;
+        }
+    }
+
+    /**
+     * Computes the score gained by a fling
+     * @param board The packed board
+     * @param direction One of RIGHT, UP, LEFT or DOWN
+     * @return Sum of the values of all tiles created by merges
+     */
+    public static int score(long board, int direction) {
+        switch (direction) {
+            case RIGHT:
+            case LEFT:
+                return scoreRows(board);
+            case UP:
+            case DOWN:
+                return scoreRows(transpose(board));
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Finds every fling that would change the board in a single pass:
+     * the sideways move masks of the rows give LEFT and RIGHT, and those
+     * of the transposed board's rows give UP and DOWN.
+     * @param board The packed board
+     * @return Mask with bit (1 << direction) set for every legal fling,
+     *         0 when the game is over
+     */
+    public static int legalMoves(long board) {
+        long columns = transpose(board);
+        int rows = RowTables.MOVES[(int)(board & ROW_MASK)] |
+                RowTables.MOVES[(int)((board >>> 16) & ROW_MASK)] |
+                RowTables.MOVES[(int)((board >>> 32) & ROW_MASK)] |
+                RowTables.MOVES[(int)(board >>> 48)];
+        int cols = RowTables.MOVES[(int)(columns & ROW_MASK)] |
+                RowTables.MOVES[(int)((columns >>> 16) & ROW_MASK)] |
+                RowTables.MOVES[(int)((columns >>> 32) & ROW_MASK)] |
+                RowTables.MOVES[(int)(columns >>> 48)];
+
+        // A column sliding left moves tiles up, sliding right moves them down
+        return rows | ((cols >>> LEFT) & 1) << UP | ((cols >>> RIGHT) & 1) << DOWN;
+    }
+
+    /**
+     * Checks a legal move mask for a direction
+     * @param legalMoves Mask from legalMoves()
+     * @param direction One of RIGHT, UP, LEFT or DOWN
+     * @return true if the fling is legal
+     */
+    public static boolean canMove(int legalMoves, int direction) {
+        return (legalMoves & (1 << direction)) != 0;
+    }
+
+    /**
+     * Finds the cells that differ between two boards
+     * @param before The first packed board
+     * @param after The second packed board
+     * @return Mask with bit (row * 4 + col) set for every cell whose tile
+     *         differs, 0 when the boards are equal
+     */
+    public static int changedCells(long before, long after) {
+        // Fold each nibble's bits into its lowest bit
+        long x = before ^ after;
+        x |= x >>> 2;
+        x |= x >>> 1;
+        x &= 0x1111111111111111L;
+
+        // Gather bit 4i into bit i
+        x = (x | x >>> 3) & 0x0303030303030303L;
+        x = (x | x >>> 6) & 0x000F000F000F000FL;
+        x = (x | x >>> 12) & 0x000000FF000000FFL;
+        return (int)((x | x >>> 24) & 0xFFFF);
+    }
+
+    /**
+     * Slides every row of the board left using the row tables
+     * @param board The packed board
+     * @return The updated board
+     */
+    private static long moveRowsLeft(long board) {
+        return (long)RowTables.LEFT[(int)(board & ROW_MASK)] |
+                (long)RowTables.LEFT[(int)((board >>> 16) & ROW_MASK)] << 16 |
+                (long)RowTables.LEFT[(int)((board >>> 32) & ROW_MASK)] << 32 |
+                (long)RowTables.LEFT[(int)(board >>> 48)] << 48;
+    }
+
+    /**
+     * Slides every row of the board right using the row tables
+     * @param board The packed board
+     * @return The updated board
+     */
+    private static long moveRowsRight(long board) {
+        return (long)RowTables.RIGHT[(int)(board & ROW_MASK)] |
+                (long)RowTables.RIGHT[(int)((board >>> 16) & ROW_MASK)] << 16 |
+                (long)RowTables.RIGHT[(int)((board >>> 32) & ROW_MASK)] << 32 |
+                (long)RowTables.RIGHT[(int)(board >>> 48)] << 48;
+    }
+
+    /**
+     * Scores sliding every row of the board sideways. A row scores the
+     * same whether it slides left or right, so one table serves both.
+     * @param board The packed board
+     * @return The merge score
+     */
+    private static int scoreRows(long board) {
+        return RowTables.SCORE[(int)(board & ROW_MASK)] +
+                RowTables.SCORE[(int)((board >>> 16) & ROW_MASK)] +
+                RowTables.SCORE[(int)((board >>> 32) & ROW_MASK)] +
+                RowTables.SCORE[(int)(board >>> 48)];
+    }
+
+    /**
+     * Gets the bit offset of a cell's nibble
+     * @param row Row index
+     * @param col Column index
+     * @return The shift amount
+     */
+    private static int shift(int row, int col) {
+        return (row * SIZE + col) * 4;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * An immutable view of a game after a change, as MoveProcessor publishes it.
+ *
+ * Besides the board, score and legal moves it holds what the change was:
+ * the board before it and, for a fling, the direction and the spawned
+ * tile, so a view can animate the fling with MoveTransitions without
+ * asking the engine. Snapshots are numbered in the order they were
+ * published, so a reader can tell whether it missed any.
+ */
+public final class BoardSnapshot {
+
+    // Number of the snapshot, one more than the one before it
+    private final long sequence;
+
+    // The packed board (see Bitboard)
+    private final long board;
+
+    // The game score
+    private final int score;
+
+    // Mask of the flings that would move tiles (see Bitboard.legalMoves)
+    private final int legalMoves;
+
+    // The packed board before the change
+    private final long previousBoard;
+
+    // Direction of the fling that made the change, -1 if it was not a fling
+    private final int direction;
+
+    // The tile the fling spawned, alone on a packed board, or 0
+    private final long spawn;
+
+    /**
+     * BoardSnapshot constructor
+     * @param sequence Number of the snapshot
+     * @param board The packed board
+     * @param score The game score
+     * @param legalMoves Mask of the flings that would move tiles
+     * @param previousBoard The packed board before the change
+     * @param direction Direction of the fling that made the change, or -1
+     * @param spawn The tile the fling spawned, alone on a packed board, or 0
+     */
+    public BoardSnapshot(long sequence, long board, int score, int legalMoves,
+                         long previousBoard, int direction, long spawn) {
+        this.sequence = sequence;
+        this.board = board;
+        this.score = score;
+        this.legalMoves = legalMoves;
+        this.previousBoard = previousBoard;
+        this.direction = direction;
+        this.spawn = spawn;
+    }
+
+    /**
+     * Gets the number of the snapshot
+     * @return One more than the number of the snapshot before it
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the game board
+     * @return The packed board (see Bitboard)
+     */
+    public long getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the game score
+     * @return The score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the flings that were valid
+     * @return Mask with bit (1 << direction) set for every valid fling
+     */
+    public int getLegalMoves() {
+        return legalMoves;
+    }
+
+    /**
+     * Determines if a fling was valid
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     * @return true if the fling would have moved any tiles
+     */
+    public boolean canMove(int direction) {
+        return direction >= 0 && direction < Bitboard.DIRECTIONS && Bitboard.canMove(legalMoves, direction);
+    }
+
+    /**
+     * Determines if the game was over
+     * @return true if no fling could move any tiles
+     */
+    public boolean isGameOver() {
+        return legalMoves == 0;
+    }
+
+    /**
+     * Gets the board before the change
+     * @return The packed board
+     */
+    public long getPreviousBoard() {
+        return previousBoard;
+    }
+
+    /**
+     * Gets the direction of the fling that made the change
+     * @return One of Bitboard.RIGHT, UP, LEFT or DOWN, or -1 if the
+     * change was not a fling
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the tile the fling spawned
+     * @return The tile alone on a packed board, or 0 if the change was
+     * not a fling
+     */
+    public long getSpawn() {
+        return spawn;
+    }
+
+    /**
+     * Gets the cells the change touched
+     * @return Mask with bit (row * 4 + col) set for every changed cell
+     */
+    public int getChangedCells() {
+        return Bitboard.changedCells(previousBoard, board);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Rules engine for the 2048 game.
+ *
+ * Holds the board, score and legal moves and applies flings, with
+ * no dependency on Android so it can run on any JVM.
+ */
+public class GameEngine {
+
+    // Random number generator for tile spawns
+    private GameRandom random;
+
+    // Where new tiles appear and what value they have
+    private SpawnPolicy spawnPolicy;
+
+    // The game score
+    private int score;
+
+    // Mask of the flings that would move tiles (see Bitboard.legalMoves)
+    private int legalMoves;
+
+    // The game board, packed as 4-bit tile exponents (see Bitboard)
+    private long board;
+
+    // The tile the last fling spawned, alone on a packed board
+    private long lastSpawn;
+
+    /**
+     * GameEngine constructor for an unseeded game
+     */
+    public GameEngine() {
+        this(GameRandom.newSeed());
+    }
+
+    /**
+     * GameEngine constructor
+     * @param seed Seed for tile spawns; equal seeds play out identically
+     */
+    public GameEngine(long seed) {
+        this(new GameRandom(seed), SpawnPolicy.TWOS_ONLY);
+    }
+
+    /**
+     * GameEngine constructor
+     * @param random Random number generator used to place tiles,
+     *               owned by this engine from now on
+     * @param spawnPolicy Where new tiles appear and what value they have
+     */
+    public GameEngine(GameRandom random, SpawnPolicy spawnPolicy) {
+        this.random = random;
+        this.spawnPolicy = spawnPolicy;
+        newGame();
+    }
+
+    /**
+     * GameEngine constructor for a saved game
+     * @param random Random number generator in its saved state
+     * @param spawnPolicy Where new tiles appear and what value they have
+     * @param board The packed board
+     * @param score The game score
+     */
+    GameEngine(GameRandom random, SpawnPolicy spawnPolicy, long board, int score) {
+        this.random = random;
+        this.spawnPolicy = spawnPolicy;
+        restore(board, score);
+    }
+
+    /**
+     * Starts a new game
+     */
+    public void newGame() {
+        score = 0;
+        lastSpawn = 0;
+        initializeBoard();
+        determineValidMoves();
+    }
+
+    /**
+     * Applies a fling to the board: slides and merges the tiles, adds the
+     * merge score, spawns a new tile and updates the legal moves.
+     * This path allocates nothing, so rapid play does not churn the GC.
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     * @return true if the fling moved any tiles
+     */
+    public boolean fling(int direction) {
+        if (!canMove(direction)) {
+            return false;
+        }
+
+        score += Bitboard.score(board, direction);
+        long moved = Bitboard.move(board, direction);
+
+        board = placeRandomTile(moved);
+        lastSpawn = board ^ moved;
+        determineValidMoves();
+        return true;
+    }
+
+    /**
+     * Restores a previously saved position
+     * @param board The packed board (see Bitboard)
+     * @param score The game score
+     */
+    public void restore(long board, int score) {
+        this.board = board;
+        this.score = score;
+        lastSpawn = 0;
+        determineValidMoves();
+    }
+
+    /**
+     * Determines if a fling is currently valid
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     * @return true if the fling would move any tiles
+     */
+    public boolean canMove(int direction) {
+        return direction >= 0 && direction < Bitboard.DIRECTIONS && Bitboard.canMove(legalMoves, direction);
+    }
+
+    /**
+     * Gets the flings that are currently valid
+     * @return Mask with bit (1 << direction) set for every valid fling
+     */
+    public int getLegalMoves() {
+        return legalMoves;
+    }
+
+    /**
+     * Determines if the game is over
+     * @return true if no fling can move any tiles
+     */
+    public boolean isGameOver() {
+        return legalMoves == 0;
+    }
+
+    /**
+     * Gets the game score
+     * @return The score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the game board
+     * @return The packed board (see Bitboard)
+     */
+    public long getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the spawn rules
+     * @return Where new tiles appear and what value they have
+     */
+    public SpawnPolicy getSpawnPolicy() {
+        return spawnPolicy;
+    }
+
+    /**
+     * Gets the random number generator for tile spawns
+     * @return The generator, still owned by this engine
+     */
+    GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the tile the last fling spawned
+     * @return The tile alone on a packed board, or 0 if there has been
+     * no fling since the game started or was restored
+     */
+    public long getLastSpawn() {
+        return lastSpawn;
+    }
+
+    /**
+     * Places a random tile on an open spot on the board
+     * @param board The packed board
+     * @return The board with the new tile
+     */
+    long placeRandomTile(long board) {
+        return spawnPolicy.spawn(board, random);
+    }
+
+    /**
+     * Determines the valid flings that can currently occur.
+     * A fling is valid when it changes the board.
+     */
+    void determineValidMoves() {
+        legalMoves = Bitboard.legalMoves(board);
+    }
+
+    /**
+     * Initializes the game board
+     */
+    private void initializeBoard() {
+        board = placeRandomTile(placeRandomTile(0));
+    }
+}
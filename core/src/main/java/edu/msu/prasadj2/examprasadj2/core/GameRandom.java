@@ -0,0 +1,158 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fast, seedable and splittable random number generator for games.
+ *
+ * Uses xoshiro256** seeded through SplitMix64. The same seed always
+ * produces the same sequence, and split() hands out child generators
+ * with independent streams, so many games can run in parallel without
+ * sharing (or contending on) a single generator. Instances are not
+ * thread safe: give every thread its own split.
+ */
+public final class GameRandom {
+
+    // Golden ratio increment of SplitMix64
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Source of distinct seeds for unseeded generators
+    private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong(0x2048204820482048L);
+
+    // Generator state
+    private long s0, s1, s2, s3;
+
+    /**
+     * GameRandom constructor
+     * @param seed The seed; equal seeds give equal sequences
+     */
+    public GameRandom(long seed) {
+        s0 = mix(seed += GOLDEN_GAMMA);
+        s1 = mix(seed += GOLDEN_GAMMA);
+        s2 = mix(seed += GOLDEN_GAMMA);
+        s3 = mix(seed + GOLDEN_GAMMA);
+    }
+
+    /**
+     * GameRandom constructor from a saved state
+     * @param s0 First state word
+     * @param s1 Second state word
+     * @param s2 Third state word
+     * @param s3 Fourth state word
+     */
+    private GameRandom(long s0, long s1, long s2, long s3) {
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Makes a seed for a game that does not need to be reproduced
+     * @return A seed that differs between calls and between runs
+     */
+    public static long newSeed() {
+        return mix(SEED_UNIQUIFIER.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime());
+    }
+
+    /**
+     * Creates a child generator with its own independent stream.
+     * This generator advances, so splitting is deterministic too.
+     * @return The child generator
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong() ^ mix(nextLong()));
+    }
+
+    /**
+     * Gets the next 64 random bits
+     * @return A uniformly distributed long
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Gets a random integer in a range, without modulo bias
+     * @param bound Upper bound (exclusive), must be positive
+     * @return A uniformly distributed integer from 0 to bound - 1
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        // Multiply-shift (Lemire), rejecting the few values that would bias the result
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int)(product >>> 32);
+    }
+
+    /**
+     * Gets a random double
+     * @return A uniformly distributed double from 0 (inclusive) to 1 (exclusive)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Writes the generator state, so the generator can continue its
+     * sequence after a restore
+     * @param buffer Receives the state as four longs
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putLong(s0);
+        buffer.putLong(s1);
+        buffer.putLong(s2);
+        buffer.putLong(s3);
+    }
+
+    /**
+     * Reads a generator state written by write()
+     * @param buffer Holds the state as four longs
+     * @return A generator that continues the saved sequence
+     * @throws IllegalArgumentException If the state is all zeros, which
+     * xoshiro256** can never reach
+     */
+    static GameRandom read(ByteBuffer buffer) {
+        long s0 = buffer.getLong();
+        long s1 = buffer.getLong();
+        long s2 = buffer.getLong();
+        long s3 = buffer.getLong();
+        if ((s0 | s1 | s2 | s3) == 0) {
+            throw new IllegalArgumentException("Invalid random state");
+        }
+        return new GameRandom(s0, s1, s2, s3);
+    }
+
+    /**
+     * SplitMix64 output function
+     * @param z Input value
+     * @return The mixed value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
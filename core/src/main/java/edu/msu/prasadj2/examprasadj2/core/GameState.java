@@ -0,0 +1,163 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Everything needed to resume a game, with a compact binary encoding.
+ *
+ * The encoding is a fixed 104-byte record followed by the move history:
+ *
+ *   int magic, int version, long board, int score, double probability
+ *   of a 4, 4 longs of spawn generator state, 4 longs of cosmetic
+ *   generator state, long palette seed, int history length (-1 for no
+ *   history), then the history as MoveHistory.encode() writes it.
+ *
+ * Only the state is stored; anything derived from it, like the legal
+ * moves or the tile colors, is rebuilt on decoding. The version is
+ * checked on decoding so the format can change without misreading old
+ * saves.
+ */
+public final class GameState {
+
+    /**
+     * Version of the encoding
+     */
+    public static final int VERSION = 1;
+
+    // Identifies the encoding, "2048" in ASCII
+    private static final int MAGIC = 0x32303438;
+
+    // Bytes before the move history
+    private static final int FIXED_BYTES = 104;
+
+    // The rules engine, with its board, score and spawn generator
+    private final GameEngine engine;
+
+    // Generator for cosmetic choices
+    private final GameRandom colorRandom;
+
+    // Seed the tile colors are generated from
+    private final long paletteSeed;
+
+    // Undo and redo history, or null
+    private final MoveHistory history;
+
+    /**
+     * GameState constructor
+     * @param engine The rules engine
+     * @param colorRandom Generator for cosmetic choices
+     * @param paletteSeed Seed the tile colors are generated from
+     * @param history Undo and redo history, or null
+     */
+    public GameState(GameEngine engine, GameRandom colorRandom, long paletteSeed, MoveHistory history) {
+        this.engine = engine;
+        this.colorRandom = colorRandom;
+        this.paletteSeed = paletteSeed;
+        this.history = history;
+    }
+
+    /**
+     * Gets the rules engine
+     * @return The engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the generator for cosmetic choices
+     * @return The generator
+     */
+    public GameRandom getColorRandom() {
+        return colorRandom;
+    }
+
+    /**
+     * Gets the seed the tile colors are generated from
+     * @return The palette seed
+     */
+    public long getPaletteSeed() {
+        return paletteSeed;
+    }
+
+    /**
+     * Gets the undo and redo history
+     * @return The history, or null
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Encodes the state as it is now
+     * @return The encoded state
+     */
+    public byte[] encode() {
+        byte[] historyBytes = history != null ? history.encode() : null;
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES
+                + (historyBytes != null ? historyBytes.length : 0));
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(engine.getBoard());
+        buffer.putInt(engine.getScore());
+        buffer.putDouble(engine.getSpawnPolicy().getFourProbability());
+        engine.getRandom().write(buffer);
+        colorRandom.write(buffer);
+        buffer.putLong(paletteSeed);
+        if (historyBytes != null) {
+            buffer.putInt(historyBytes.length);
+            buffer.put(historyBytes);
+        }
+        else {
+            buffer.putInt(-1);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a state written by encode()
+     * @param bytes The encoded state
+     * @return The state, with a new engine, generator and history
+     * @throws IllegalArgumentException If the bytes are not a valid state
+     * or were written by another version
+     */
+    public static GameState decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a saved game");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported saved game version " + version);
+            }
+            long board = buffer.getLong();
+            int score = buffer.getInt();
+            if (score < 0) {
+                throw new IllegalArgumentException("Bad score " + score);
+            }
+            SpawnPolicy spawnPolicy = new SpawnPolicy(buffer.getDouble());
+            GameEngine engine = new GameEngine(GameRandom.read(buffer), spawnPolicy, board, score);
+            GameRandom colorRandom = GameRandom.read(buffer);
+            long paletteSeed = buffer.getLong();
+
+            int historyLength = buffer.getInt();
+            if (historyLength != buffer.remaining() && !(historyLength == -1 && !buffer.hasRemaining())) {
+                throw new IllegalArgumentException("Bad history length " + historyLength);
+            }
+            MoveHistory history = historyLength < 0 ? null
+                    : MoveHistory.decode(Arrays.copyOfRange(bytes, buffer.position(), bytes.length));
+            return new GameState(engine, colorRandom, paletteSeed, history);
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated saved game");
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Undo and redo history of a game, held in primitive ring buffers.
+ *
+ * Every position of the game is one slot of three parallel arrays: the
+ * packed board, the score and the tile the move to it spawned, as a
+ * byte (cell << 4 | exponent, 0 for none). A cursor marks the current
+ * position; undo and redo only move it, and a new move drops the
+ * positions after it. Once the buffers are full the oldest position is
+ * overwritten, so memory is fixed by the capacity given at construction.
+ * Nothing allocates after that.
+ *
+ * encode() and decode() convert the history to and from a small byte
+ * array, 13 bytes per position, for saving it with the game.
+ */
+public class MoveHistory {
+
+    /**
+     * Default number of moves that can be undone
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // Identifies the encoding and its version
+    private static final int MAGIC = 0x48495301;
+
+    // Bytes before the positions in the encoding
+    private static final int HEADER = 16;
+
+    // Bytes per position in the encoding
+    private static final int POSITION_BYTES = 13;
+
+    // Largest capacity decode() accepts, so bad input cannot exhaust memory
+    private static final int MAX_DECODED_CAPACITY = 1 << 20;
+
+    // Packed board of each position
+    private final long[] boards;
+
+    // Score of each position
+    private final int[] scores;
+
+    // Tile spawned by the move to each position
+    private final byte[] spawns;
+
+    // Slot of the oldest position
+    private int first;
+
+    // Number of positions held
+    private int count;
+
+    // Current position, counted from the oldest, -1 before reset()
+    private int cursor = -1;
+
+    /**
+     * MoveHistory constructor
+     * @param capacity Most moves that can be undone, at least 1
+     */
+    public MoveHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        boards = new long[capacity + 1];
+        scores = new int[capacity + 1];
+        spawns = new byte[capacity + 1];
+    }
+
+    /**
+     * Starts the history of a new game
+     * @param board The starting board
+     * @param score The starting score
+     */
+    public void reset(long board, int score) {
+        first = 0;
+        count = 0;
+        cursor = -1;
+        record(board, score, 0);
+    }
+
+    /**
+     * Adds the position after a move, dropping any positions that could
+     * have been redone, and the oldest one if the history is full
+     * @param board The board after the move
+     * @param score The score after the move
+     * @param spawn The spawned tile alone, as a packed board (see
+     *              GameEngine.getLastSpawn), or 0 for none
+     */
+    public void record(long board, int score, long spawn) {
+        count = cursor + 1;
+        if (count == boards.length) {
+            first = slot(1);
+            count--;
+        }
+        int slot = slot(count);
+        boards[slot] = board;
+        scores[slot] = score;
+        spawns[slot] = encodeSpawn(spawn);
+        cursor = count++;
+    }
+
+    /**
+     * Determines if there is a move to undo
+     * @return true if undo() would go back
+     */
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    /**
+     * Determines if there is an undone move to redo
+     * @return true if redo() would go forward
+     */
+    public boolean canRedo() {
+        return cursor < count - 1;
+    }
+
+    /**
+     * Goes back to the position before the current one
+     * @return true if there was a move to undo
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        cursor--;
+        return true;
+    }
+
+    /**
+     * Goes forward to the position the last undo left
+     * @return true if there was a move to redo
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        cursor++;
+        return true;
+    }
+
+    /**
+     * Gets the board of the current position
+     * @return The packed board
+     */
+    public long getBoard() {
+        return boards[slot(cursor)];
+    }
+
+    /**
+     * Gets the score of the current position
+     * @return The score
+     */
+    public int getScore() {
+        return scores[slot(cursor)];
+    }
+
+    /**
+     * Gets the tile spawned by the move to the current position
+     * @return The tile alone as a packed board, or 0 for none
+     */
+    public long getSpawn() {
+        int spawn = spawns[slot(cursor)] & 0xFF;
+        return (long)(spawn & 0xF) << ((spawn >>> 4) * 4);
+    }
+
+    /**
+     * Gets the number of moves that can be undone
+     * @return The undo count
+     */
+    public int getUndoCount() {
+        return Math.max(cursor, 0);
+    }
+
+    /**
+     * Gets the number of moves that can be redone
+     * @return The redo count
+     */
+    public int getRedoCount() {
+        return Math.max(count - 1 - cursor, 0);
+    }
+
+    /**
+     * Gets the most moves that can be undone
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return boards.length - 1;
+    }
+
+    /**
+     * Encodes the history
+     * @return magic, capacity, position count and cursor as ints, then
+     * each position from the oldest as board, score and spawn byte
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + count * POSITION_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(getCapacity());
+        buffer.putInt(count);
+        buffer.putInt(cursor);
+        for (int i = 0; i < count; i++) {
+            int slot = slot(i);
+            buffer.putLong(boards[slot]);
+            buffer.putInt(scores[slot]);
+            buffer.put(spawns[slot]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a history written by encode()
+     * @param bytes The encoded history
+     * @return The history, with the capacity it was saved with
+     * @throws IllegalArgumentException If the bytes are not a valid history
+     * with at least one position; a history that was never reset has no
+     * current position to restore
+     */
+    public static MoveHistory decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a move history");
+            }
+            int capacity = buffer.getInt();
+            int count = buffer.getInt();
+            int cursor = buffer.getInt();
+            if (capacity < 1 || capacity > MAX_DECODED_CAPACITY || count < 1 || count > capacity + 1
+                    || cursor < 0 || cursor >= count
+                    || buffer.remaining() != count * POSITION_BYTES) {
+                throw new IllegalArgumentException("Bad move history header");
+            }
+
+            MoveHistory history = new MoveHistory(capacity);
+            for (int i = 0; i < count; i++) {
+                history.boards[i] = buffer.getLong();
+                history.scores[i] = buffer.getInt();
+                history.spawns[i] = buffer.get();
+            }
+            history.count = count;
+            history.cursor = cursor;
+            return history;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated move history");
+        }
+    }
+
+    /**
+     * Finds the slot of a position
+     * @param index Position counted from the oldest
+     * @return Index into the arrays
+     */
+    private int slot(int index) {
+        int slot = first + index;
+        return slot < boards.length ? slot : slot - boards.length;
+    }
+
+    /**
+     * Packs a spawned tile into a byte
+     * @param spawn The tile alone as a packed board, or 0 for none
+     * @return cell << 4 | exponent, or 0 for none
+     */
+    private static byte encodeSpawn(long spawn) {
+        if (spawn == 0) {
+            return 0;
+        }
+        int cell = Long.numberOfTrailingZeros(spawn) / 4;
+        return (byte)(cell << 4 | (int)(spawn >>> (cell * 4)) & 0xF);
+    }
+}
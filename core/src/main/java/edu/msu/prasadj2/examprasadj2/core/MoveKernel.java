@@ -0,0 +1,25 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Applies one fling to many packed boards at once.
+ *
+ * Implementations must give exactly the results of Bitboard.move and
+ * Bitboard.score. See MoveKernels for the available kernels.
+ */
+public interface MoveKernel {
+
+    /**
+     * Flings every board the same way. Boards that cannot move in that
+     * direction stay as they are and score 0.
+     * @param boards Packed boards, replaced by the moved boards
+     * @param scores Receives each board's merge score
+     * @param count Number of boards, from the start of the arrays
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     */
+    void move(long[] boards, int[] scores, int count, int direction);
+}
@@ -0,0 +1,96 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * The available move kernels.
+ *
+ * The scalar kernel always works. The vector kernel lives in the simd
+ * module, which needs the incubating Vector API (JDK 16 or newer, run
+ * with --add-modules jdk.incubator.vector), so it is looked up by name
+ * and is missing on Android and on older JVMs. A vector kernel keeps
+ * scratch space, so each call hands out a new one, to be used by one
+ * thread at a time.
+ */
+public final class MoveKernels {
+
+    // Class name of the Vector API kernel in the simd module
+    private static final String VECTOR_KERNEL = "edu.msu.prasadj2.examprasadj2.simd.VectorMoveKernel";
+
+    // The plain loop over Bitboard.move
+    private static final MoveKernel SCALAR = new MoveKernel() {
+        @Override
+        public void move(long[] boards, int[] scores, int count, int direction) {
+            for (int i = 0; i < count; i++) {
+                long board = boards[i];
+                scores[i] = Bitboard.score(board, direction);
+                boards[i] = Bitboard.move(board, direction);
+            }
+        }
+    };
+
+    // Creates vector kernels, or null if they are unavailable
+    private static final Constructor<?> VECTOR = findVector();
+
+    /**
+     * Static utility class, not to be instantiated
+     */
+    private MoveKernels() {
+    }
+
+    /**
+     * Gets the scalar kernel
+     * @return A kernel that moves one board at a time
+     */
+    public static MoveKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Creates a Vector API kernel
+     * @return A new kernel for one thread, or null if it is unavailable
+     * on this JVM
+     */
+    public static MoveKernel vector() {
+        if (VECTOR == null) {
+            return null;
+        }
+        try {
+            return (MoveKernel)VECTOR.newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            // findVector() already created one successfully
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the fastest available kernel
+     * @return A new vector kernel for one thread if available, otherwise
+     * the scalar one
+     */
+    public static MoveKernel best() {
+        return VECTOR != null ? vector() : SCALAR;
+    }
+
+    /**
+     * Looks up the vector kernel and checks that it can be created
+     * @return Its constructor, or null if it is not on the class path or
+     * the Vector API or SIMD hardware is missing
+     */
+    private static Constructor<?> findVector() {
+        try {
+            Constructor<?> constructor = Class.forName(VECTOR_KERNEL).getConstructor();
+            constructor.newInstance();
+            return constructor;
+        }
+        catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
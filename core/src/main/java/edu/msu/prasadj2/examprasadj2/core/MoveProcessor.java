@@ -0,0 +1,355 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies moves to a game on a worker thread.
+ *
+ * The engine and history are owned by a single worker thread from
+ * construction on; flings, undo, redo and new games are queued to it and
+ * applied in order. After each change the worker publishes an immutable
+ * BoardSnapshot through a volatile field and tells the listener, so any
+ * thread can read the latest state without locking, and the thread that
+ * handles input never waits for move processing.
+ *
+ * Requests are packed into ints in a preallocated ring that one
+ * long-lived Runnable drains, so queueing a move allocates nothing. The
+ * ring only grows if more than QUEUE_CAPACITY requests are waiting. Each
+ * published change still allocates one BoardSnapshot, about 56 bytes on
+ * the worker: readers on other threads hold on to the snapshot they were
+ * given, so it cannot be reused without them copying it under a lock.
+ *
+ * The worker thread exits when it has been idle for a while and is
+ * restarted by the next request, so an abandoned processor holds no
+ * thread.
+ */
+public class MoveProcessor {
+
+    /**
+     * Told of every snapshot the worker publishes
+     */
+    public interface Listener {
+        /**
+         * Called on the worker thread after a snapshot is published
+         * @param snapshot The new snapshot
+         */
+        void onSnapshot(BoardSnapshot snapshot);
+    }
+
+    // Requests the ring holds before it grows, a power of two
+    private static final int QUEUE_CAPACITY = 64;
+
+    // Nanoseconds the worker thread waits for work before it exits
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // Operations of the queued requests, kept above the direction bits
+    private static final int FLING = 0;
+    private static final int UNDO = 1;
+    private static final int REDO = 2;
+    private static final int NEW_GAME = 3;
+    private static final int OP_SHIFT = 8;
+    private static final int DIRECTION_MASK = (1 << OP_SHIFT) - 1;
+
+    // Returned by take when the worker should exit
+    private static final int EXIT = -1;
+
+    // The game rules, board and score, used on the worker thread only
+    private final GameEngine engine;
+
+    // Positions for undo and redo, used on the worker thread only
+    private final MoveHistory history;
+
+    // Guards the ring, the worker thread and busy
+    private final Object lock = new Object();
+
+    // Queued requests, each (op << OP_SHIFT | direction)
+    private int[] commands = new int[QUEUE_CAPACITY];
+
+    // Index of the oldest queued request
+    private int head;
+
+    // Number of queued requests
+    private int count;
+
+    // True while the worker applies a request it has taken from the ring
+    private boolean busy;
+
+    // The worker thread, or null if it has exited
+    private Thread worker;
+
+    // The latest published state
+    private volatile BoardSnapshot snapshot;
+
+    // Told of every snapshot, or null
+    private volatile Listener listener;
+
+    // Applies queued requests until the worker has been idle for IDLE_NANOS
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                int command;
+                while ((command = take()) != EXIT) {
+                    apply(command);
+                }
+            }
+            finally {
+                synchronized (lock) {
+                    busy = false;
+                    worker = null;
+                    if (count > 0) {
+                        // A request failed, or arrived as the worker timed out
+                        startWorker();
+                    }
+                    lock.notifyAll();
+                }
+            }
+        }
+    };
+
+    /**
+     * MoveProcessor constructor
+     * @param engine The rules engine, owned by the worker from now on
+     * @param history Undo and redo history of the engine's game, owned by
+     *                the worker from now on
+     */
+    public MoveProcessor(GameEngine engine, MoveHistory history) {
+        this.engine = engine;
+        this.history = history;
+        snapshot = new BoardSnapshot(0, engine.getBoard(), engine.getScore(), engine.getLegalMoves(),
+                engine.getBoard(), -1, 0);
+    }
+
+    /**
+     * Sets the listener told of every snapshot
+     * @param listener The listener, or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the latest published state; safe to call from any thread
+     * @return The snapshot
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Queues a fling. A fling that moves no tiles when its turn comes
+     * publishes nothing.
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     */
+    public void fling(int direction) {
+        if (direction < 0 || direction >= Bitboard.DIRECTIONS) {
+            throw new IllegalArgumentException("Bad direction " + direction);
+        }
+        enqueue(FLING << OP_SHIFT | direction);
+    }
+
+    /**
+     * Queues taking back the last move, if there is one
+     */
+    public void undo() {
+        enqueue(UNDO << OP_SHIFT);
+    }
+
+    /**
+     * Queues playing again the last move taken back, if there is one
+     */
+    public void redo() {
+        enqueue(REDO << OP_SHIFT);
+    }
+
+    /**
+     * Queues starting a new game
+     */
+    public void newGame() {
+        enqueue(NEW_GAME << OP_SHIFT);
+    }
+
+    /**
+     * Encodes the game once every queued change has been applied. The
+     * worker is held idle while the game is encoded on the calling
+     * thread, so requests queued meanwhile wait for it.
+     * @param colorRandom Generator for cosmetic choices
+     * @param paletteSeed Seed the tile colors are generated from
+     * @return The encoded GameState
+     */
+    public byte[] encode(GameRandom colorRandom, long paletteSeed) {
+        synchronized (lock) {
+            waitIdle();
+            return new GameState(engine, colorRandom, paletteSeed, history).encode();
+        }
+    }
+
+    /**
+     * Waits until every queued change has been applied and published
+     */
+    public void awaitIdle() {
+        synchronized (lock) {
+            waitIdle();
+        }
+    }
+
+    /**
+     * Adds a request to the ring and wakes or starts the worker
+     * @param command The request, (op << OP_SHIFT | direction)
+     */
+    private void enqueue(int command) {
+        synchronized (lock) {
+            if (count == commands.length) {
+                int[] grown = new int[commands.length * 2];
+                for (int i = 0; i < count; i++) {
+                    grown[i] = commands[(head + i) & (commands.length - 1)];
+                }
+                commands = grown;
+                head = 0;
+            }
+            commands[(head + count) & (commands.length - 1)] = command;
+            count++;
+
+            if (worker == null) {
+                startWorker();
+            }
+            else if (!busy) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Starts a worker thread to drain the ring; called holding the lock
+     */
+    private void startWorker() {
+        worker = new Thread(drain, "MoveProcessor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Takes the oldest request from the ring, waiting for one if it is
+     * empty; called on the worker thread
+     * @return The request, or EXIT if none came for IDLE_NANOS
+     */
+    private int take() {
+        synchronized (lock) {
+            busy = false;
+            if (count == 0) {
+                // Wake anyone waiting for the worker to go idle
+                lock.notifyAll();
+                long deadline = System.nanoTime() + IDLE_NANOS;
+                while (count == 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return EXIT;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                    catch (InterruptedException e) {
+                        return EXIT;
+                    }
+                }
+            }
+
+            int command = commands[head];
+            head = (head + 1) & (commands.length - 1);
+            count--;
+            busy = true;
+            return command;
+        }
+    }
+
+    /**
+     * Applies a request to the engine and history; called on the worker
+     * thread
+     * @param command The request, (op << OP_SHIFT | direction)
+     */
+    private void apply(int command) {
+        switch (command >>> OP_SHIFT) {
+            case FLING:
+                int direction = command & DIRECTION_MASK;
+                long previous = engine.getBoard();
+                if (engine.fling(direction)) {
+                    history.record(engine.getBoard(), engine.getScore(), engine.getLastSpawn());
+                    publish(previous, direction, engine.getLastSpawn());
+                }
+                break;
+
+            case UNDO:
+                if (history.undo()) {
+                    showHistory();
+                }
+                break;
+
+            case REDO:
+                if (history.redo()) {
+                    showHistory();
+                }
+                break;
+
+            case NEW_GAME:
+                long before = engine.getBoard();
+                engine.newGame();
+                history.reset(engine.getBoard(), engine.getScore());
+                publish(before, -1, 0);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Bad request " + command);
+        }
+    }
+
+    /**
+     * Waits, holding the lock, until the ring is empty and the worker has
+     * finished the last request, even if interrupted
+     */
+    private void waitIdle() {
+        boolean interrupted = false;
+        while (count > 0 || busy) {
+            try {
+                lock.wait();
+            }
+            catch (InterruptedException e) {
+                // Finish waiting and interrupt again afterwards
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Moves the engine to the current position of the history and
+     * publishes it
+     */
+    private void showHistory() {
+        long previous = engine.getBoard();
+        engine.restore(history.getBoard(), history.getScore());
+        publish(previous, -1, 0);
+    }
+
+    /**
+     * Publishes the engine's state as the next snapshot
+     * @param previousBoard The board before the change
+     * @param direction Direction of the fling that made the change, or -1
+     * @param spawn The tile the fling spawned, alone on a packed board, or 0
+     */
+    private void publish(long previousBoard, int direction, long spawn) {
+        BoardSnapshot next = new BoardSnapshot(snapshot.getSequence() + 1, engine.getBoard(),
+                engine.getScore(), engine.getLegalMoves(), previousBoard, direction, spawn);
+        snapshot = next;
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.onSnapshot(next);
+        }
+    }
+}
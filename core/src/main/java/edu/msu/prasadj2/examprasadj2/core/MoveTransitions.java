@@ -0,0 +1,218 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Where every tile went in a fling, for animating it.
+ *
+ * Bitboard.move only gives the board after a fling; this buffer records
+ * one transition per tile on the board before it: the source cell, the
+ * destination cell, the tile's exponent and whether it merged there.
+ * Both tiles of a merging pair are marked merged and share a
+ * destination, which ends up holding the exponent plus one. Tiles that
+ * did not move have the same source and destination. The tile spawned
+ * after the fling is kept as a cell and an exponent.
+ *
+ * Cells are indexed like the bitboard's nibbles, row * 4 + col. The
+ * buffer is sized for a full board and reused for every fling, so
+ * recording a fling allocates nothing.
+ */
+public final class MoveTransitions {
+
+    /**
+     * Most transitions one fling can have, one per cell
+     */
+    public static final int CAPACITY = Bitboard.SIZE * Bitboard.SIZE;
+
+    // Source cell of each transition
+    private final byte[] sources = new byte[CAPACITY];
+
+    // Destination cell of each transition
+    private final byte[] destinations = new byte[CAPACITY];
+
+    // Exponent of the tile of each transition, before any merge
+    private final byte[] exponents = new byte[CAPACITY];
+
+    // Bit (1 << transition) set for each tile that merged
+    private int merged;
+
+    // Number of transitions recorded
+    private int count;
+
+    // Cell of the spawned tile, -1 for none
+    private int spawnCell = -1;
+
+    // Exponent of the spawned tile, 0 for none
+    private int spawnExponent;
+
+    /**
+     * Records the transitions of a fling, without a spawned tile
+     * @param board The packed board before the fling
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     */
+    public void compute(long board, int direction) {
+        count = 0;
+        merged = 0;
+        spawnCell = -1;
+        spawnExponent = 0;
+
+        // Walk each line from the edge the tiles slide towards,
+        // merging like RowTables.moveRowLeft
+        int start, step, lineStep;
+        switch (direction) {
+            case Bitboard.RIGHT:
+                start = Bitboard.SIZE - 1;
+                step = -1;
+                lineStep = Bitboard.SIZE;
+                break;
+            case Bitboard.UP:
+                start = 0;
+                step = Bitboard.SIZE;
+                lineStep = 1;
+                break;
+            case Bitboard.LEFT:
+                start = 0;
+                step = 1;
+                lineStep = Bitboard.SIZE;
+                break;
+            case Bitboard.DOWN:
+                start = CAPACITY - Bitboard.SIZE;
+                step = -Bitboard.SIZE;
+                lineStep = 1;
+                break;
+            default:
+                throw new IllegalArgumentException("Bad direction " + direction);
+        }
+
+        for (int line = 0; line < Bitboard.SIZE; line++) {
+            int first = start + line * lineStep;
+            int target = 0;
+            int last = 0;
+            for (int k = 0; k < Bitboard.SIZE; k++) {
+                int cell = first + k * step;
+                int exponent = (int)(board >>> (cell * 4)) & 0xF;
+                if (exponent == 0) {
+                    continue;
+                }
+                if (exponent == last && exponent < Bitboard.MAX_EXPONENT) {
+                    // Joins the previous tile at target - 1
+                    merged |= 1 << (count - 1) | 1 << count;
+                    add(cell, first + (target - 1) * step, exponent);
+                    last = 0;
+                }
+                else {
+                    add(cell, first + target * step, exponent);
+                    target++;
+                    last = exponent;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the tile spawned after the fling
+     * @param spawn The tile alone on a packed board (see
+     *              GameEngine.getLastSpawn), or 0 for none
+     */
+    public void setSpawn(long spawn) {
+        if (spawn == 0) {
+            spawnCell = -1;
+            spawnExponent = 0;
+            return;
+        }
+        spawnCell = Long.numberOfTrailingZeros(spawn) / 4;
+        spawnExponent = (int)(spawn >>> (spawnCell * 4)) & 0xF;
+    }
+
+    /**
+     * Gets the number of transitions
+     * @return One per tile on the board before the fling
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the cell a tile started in
+     * @param transition Index of the transition, less than getCount()
+     * @return The source cell
+     */
+    public int getSource(int transition) {
+        return sources[transition];
+    }
+
+    /**
+     * Gets the cell a tile ended in
+     * @param transition Index of the transition, less than getCount()
+     * @return The destination cell
+     */
+    public int getDestination(int transition) {
+        return destinations[transition];
+    }
+
+    /**
+     * Gets the exponent a tile had before the fling
+     * @param transition Index of the transition, less than getCount()
+     * @return The exponent
+     */
+    public int getExponent(int transition) {
+        return exponents[transition];
+    }
+
+    /**
+     * Determines if a tile merged with another at its destination
+     * @param transition Index of the transition, less than getCount()
+     * @return true if the tile merged
+     */
+    public boolean isMerged(int transition) {
+        return (merged & 1 << transition) != 0;
+    }
+
+    /**
+     * Gets the cell of the spawned tile
+     * @return The cell, or -1 if no tile was spawned
+     */
+    public int getSpawnCell() {
+        return spawnCell;
+    }
+
+    /**
+     * Gets the exponent of the spawned tile
+     * @return The exponent, or 0 if no tile was spawned
+     */
+    public int getSpawnExponent() {
+        return spawnExponent;
+    }
+
+    /**
+     * Gets the cells the animation of the fling draws into
+     * @return Mask with bit (row * 4 + col) set for the source and
+     * destination of every moving tile and for the spawned tile; the
+     * cells a tile slides across lie between the two
+     */
+    public int getAnimatedCells() {
+        int cells = spawnCell >= 0 ? 1 << spawnCell : 0;
+        for (int i = 0; i < count; i++) {
+            if (sources[i] != destinations[i] || isMerged(i)) {
+                cells |= 1 << sources[i] | 1 << destinations[i];
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Adds a transition
+     * @param source The cell the tile started in
+     * @param destination The cell the tile ended in
+     * @param exponent Exponent of the tile
+     */
+    private void add(int source, int destination, int exponent) {
+        sources[count] = (byte)source;
+        destinations[count] = (byte)destination;
+        exponents[count] = (byte)exponent;
+        count++;
+    }
+}
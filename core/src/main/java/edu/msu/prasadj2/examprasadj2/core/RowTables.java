@@ -0,0 +1,132 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Precomputed move and score tables for every possible 16-bit row.
+ *
+ * A row is four 4-bit tile exponents, so there are only 65,536 rows.
+ * The tables are built once when the class is loaded, after which a
+ * whole-board move is four array lookups.
+ */
+final class RowTables {
+
+    // Number of distinct 16-bit rows
+    static final int ROW_COUNT = 1 << 16;
+
+    // Resulting row after sliding left, indexed by row
+    static final char[] LEFT = new char[ROW_COUNT];
+
+    // Resulting row after sliding right, indexed by row
+    static final char[] RIGHT = new char[ROW_COUNT];
+
+    // Merge score for sliding a row in either direction, indexed by row
+    static final int[] SCORE = new int[ROW_COUNT];
+
+    // Sideways moves that change a row, as a mask of 1 << LEFT and 1 << RIGHT
+    static final byte[] MOVES = new byte[ROW_COUNT];
+
+    static {
+        build(LEFT, RIGHT, SCORE);
+        buildMoves(LEFT, RIGHT, MOVES);
+    }
+
+    /**
+     * Static utility class, not to be instantiated
+     */
+    private RowTables() {
+    }
+
+    /**
+     * Fills the row tables
+     * @param left Table to receive left slides
+     * @param right Table to receive right slides
+     * @param score Table to receive merge scores
+     */
+    static void build(char[] left, char[] right, int[] score) {
+        for (int row = 0; row < ROW_COUNT; row++) {
+            int moved = moveRowLeft(row);
+            left[row] = (char)moved;
+            score[row] = scoreRowLeft(row);
+
+            // Sliding right is sliding the mirrored row left
+            int reversed = Bitboard.reverseRow(row);
+            right[reversed] = (char)Bitboard.reverseRow(moved);
+        }
+    }
+
+    /**
+     * Fills the sideways move mask table from the slide tables
+     * @param left Left slides
+     * @param right Right slides
+     * @param moves Table to receive the move masks
+     */
+    static void buildMoves(char[] left, char[] right, byte[] moves) {
+        for (int row = 0; row < ROW_COUNT; row++) {
+            int mask = 0;
+            if (left[row] != row) {
+                mask |= 1 << Bitboard.LEFT;
+            }
+            if (right[row] != row) {
+                mask |= 1 << Bitboard.RIGHT;
+            }
+            moves[row] = (byte)mask;
+        }
+    }
+
+    /**
+     * Slides a single row left, merging equal neighbours once.
+     * Two 32768 tiles do not merge since the result would not fit in a nibble.
+     * @param row The row bits
+     * @return The resulting row bits
+     */
+    static int moveRowLeft(int row) {
+        int result = 0;
+        int target = 0;
+        int last = 0;
+        for (int col = 0; col < Bitboard.SIZE; col++) {
+            int exponent = (row >>> (col * 4)) & 0xF;
+            if (exponent == 0) {
+                continue;
+            }
+            if (exponent == last && exponent < Bitboard.MAX_EXPONENT) {
+                // Bump the tile already placed at target - 1
+                result += 1 << ((target - 1) * 4);
+                last = 0;
+            }
+            else {
+                result |= exponent << (target * 4);
+                target++;
+                last = exponent;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scores sliding a single row left
+     * @param row The row bits
+     * @return Sum of the values of all tiles created by merges
+     */
+    static int scoreRowLeft(int row) {
+        int score = 0;
+        int last = 0;
+        for (int col = 0; col < Bitboard.SIZE; col++) {
+            int exponent = (row >>> (col * 4)) & 0xF;
+            if (exponent == 0) {
+                continue;
+            }
+            if (exponent == last && exponent < Bitboard.MAX_EXPONENT) {
+                score += 1 << (exponent + 1);
+                last = 0;
+            }
+            else {
+                last = exponent;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * Decides where new tiles appear and what value they have.
+ *
+ * The cell is picked uniformly from the board's empty-cell mask with a
+ * single random draw, and the tile is a 4 with a fixed probability,
+ * otherwise a 2.
+ */
+public final class SpawnPolicy {
+
+    /**
+     * Every new tile is a 2, as in the original game
+     */
+    public static final SpawnPolicy TWOS_ONLY = new SpawnPolicy(0);
+
+    /**
+     * The standard 2048 distribution: 90% twos, 10% fours
+     */
+    public static final SpawnPolicy STANDARD = new SpawnPolicy(0.1);
+
+    // Probability that a new tile is a 4
+    private final double fourProbability;
+
+    /**
+     * SpawnPolicy constructor
+     * @param fourProbability Probability that a new tile is a 4, from 0 to 1
+     */
+    public SpawnPolicy(double fourProbability) {
+        if (!(fourProbability >= 0 && fourProbability <= 1)) {
+            throw new IllegalArgumentException("Probability out of range: " + fourProbability);
+        }
+        this.fourProbability = fourProbability;
+    }
+
+    /**
+     * Gets the probability that a new tile is a 4
+     * @return The probability, from 0 to 1
+     */
+    public double getFourProbability() {
+        return fourProbability;
+    }
+
+    /**
+     * Places a new tile on a uniformly chosen empty cell
+     * @param board The packed board, which must have an empty cell
+     * @param random Random number generator
+     * @return The board with the new tile
+     */
+    public long spawn(long board, GameRandom random) {
+        int empty = Bitboard.emptyMask(board);
+        int cell = Bitboard.selectCell(empty, random.nextInt(Integer.bitCount(empty)));
+        return board | (long)sampleExponent(random) << (cell * 4);
+    }
+
+    /**
+     * Picks the exponent of a new tile
+     * @param random Random number generator
+     * @return 1 for a 2 tile or 2 for a 4 tile
+     */
+    public int sampleExponent(GameRandom random) {
+        if (fourProbability > 0 && random.nextDouble() < fourProbability) {
+            return 2;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core;
+
+/**
+ * The eight dihedral symmetries of the board.
+ *
+ * A symmetry is a number from 0 to 7 whose bits select, in order, a
+ * transpose (1), a top-to-bottom flip (2) and a left-to-right mirror (4).
+ * The game rules are the same under every symmetry, so symmetric boards
+ * are equally good positions once moves are mapped between them.
+ */
+public final class Symmetry {
+
+    /**
+     * Number of symmetries
+     */
+    public static final int COUNT = 8;
+
+    // Symmetry bits
+    private static final int TRANSPOSE = 1, FLIP = 2, MIRROR = 4;
+
+    /**
+     * Static utility class, not to be instantiated
+     */
+    private Symmetry() {
+    }
+
+    /**
+     * Applies a symmetry to a board
+     * @param board The packed board
+     * @param symmetry Symmetry from 0 to 7
+     * @return The transformed board
+     */
+    public static long apply(long board, int symmetry) {
+        if ((symmetry & TRANSPOSE) != 0) {
+            board = Bitboard.transpose(board);
+        }
+        if ((symmetry & FLIP) != 0) {
+            board = flipRows(board);
+        }
+        if ((symmetry & MIRROR) != 0) {
+            board = Bitboard.reverseRows(board);
+        }
+        return board;
+    }
+
+    /**
+     * Maps a fling on a board to the equivalent fling on the transformed
+     * board, so that apply(move(b, d)) == move(apply(b), mapDirection(d))
+     * @param direction One of Bitboard.RIGHT, UP, LEFT or DOWN
+     * @param symmetry Symmetry from 0 to 7
+     * @return The direction on the transformed board
+     */
+    public static int mapDirection(int direction, int symmetry) {
+        if ((symmetry & TRANSPOSE) != 0) {
+            direction = transposeDirection(direction);
+        }
+        if ((symmetry & FLIP) != 0) {
+            direction = flipDirection(direction, Bitboard.UP, Bitboard.DOWN);
+        }
+        if ((symmetry & MIRROR) != 0) {
+            direction = flipDirection(direction, Bitboard.LEFT, Bitboard.RIGHT);
+        }
+        return direction;
+    }
+
+    /**
+     * Maps a fling on a transformed board back to the original board
+     * @param direction Direction on the transformed board
+     * @param symmetry Symmetry from 0 to 7 that was applied
+     * @return The direction on the original board
+     */
+    public static int unmapDirection(int direction, int symmetry) {
+        if ((symmetry & MIRROR) != 0) {
+            direction = flipDirection(direction, Bitboard.LEFT, Bitboard.RIGHT);
+        }
+        if ((symmetry & FLIP) != 0) {
+            direction = flipDirection(direction, Bitboard.UP, Bitboard.DOWN);
+        }
+        if ((symmetry & TRANSPOSE) != 0) {
+            direction = transposeDirection(direction);
+        }
+        return direction;
+    }
+
+    /**
+     * Finds the symmetry that gives the canonical form of a board: the
+     * smallest packed value among its eight transformations
+     * @param board The packed board
+     * @return Symmetry from 0 to 7
+     */
+    public static int canonicalSymmetry(long board) {
+        int best = 0;
+        long bestBoard = board;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long transformed = apply(board, symmetry);
+            if (transformed < bestBoard) {
+                bestBoard = transformed;
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the canonical form of a board, shared by all its symmetries
+     * @param board The packed board
+     * @return The smallest packed value among its eight transformations
+     */
+    public static long canonical(long board) {
+        long transposed = Bitboard.transpose(board);
+        long best = min4(board, flipRows(board));
+        best = Math.min(best, min4(transposed, flipRows(transposed)));
+        return best;
+    }
+
+    /**
+     * Smallest of two boards and their mirror images
+     */
+    private static long min4(long a, long b) {
+        return Math.min(Math.min(a, Bitboard.reverseRows(a)),
+                Math.min(b, Bitboard.reverseRows(b)));
+    }
+
+    /**
+     * Reverses the order of the rows, flipping the board top to bottom
+     * @param board The packed board
+     * @return The flipped board
+     */
+    public static long flipRows(long board) {
+        return (board << 48) | ((board << 16) & 0x0000FFFF00000000L) |
+                ((board >>> 16) & 0x00000000FFFF0000L) | (board >>> 48);
+    }
+
+    /**
+     * Swaps the horizontal and vertical directions
+     */
+    private static int transposeDirection(int direction) {
+        switch (direction) {
+            case Bitboard.RIGHT:
+                return Bitboard.DOWN;
+            case Bitboard.DOWN:
+                return Bitboard.RIGHT;
+            case Bitboard.LEFT:
+                return Bitboard.UP;
+            case Bitboard.UP:
+                return Bitboard.LEFT;
+            default:
+                return direction;
+        }
+    }
+
+    /**
+     * Swaps two opposite directions
+     */
+    private static int flipDirection(int direction, int a, int b) {
+        if (direction == a) {
+            return b;
+        }
+        if (direction == b) {
+            return a;
+        }
+        return direction;
+    }
+}
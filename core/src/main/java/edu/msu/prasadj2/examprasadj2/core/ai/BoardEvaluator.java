@@ -0,0 +1,20 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+/**
+ * Static evaluation of a board for the search players
+ */
+public interface BoardEvaluator {
+
+    /**
+     * Evaluates a board that the game can continue from. Lost boards are
+     * worth 0 to the searches, so evaluations should not be negative.
+     * @param board The packed board (see Bitboard)
+     * @return How promising the board is, higher is better
+     */
+    double evaluate(long board);
+}
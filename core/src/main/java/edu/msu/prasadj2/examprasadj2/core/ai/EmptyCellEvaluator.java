@@ -0,0 +1,36 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+
+/**
+ * Evaluator that rewards free space on the board, the simplest
+ * predictor of how long a game can go on
+ */
+public class EmptyCellEvaluator implements BoardEvaluator {
+
+    // Value of each empty cell
+    private final double weight;
+
+    /**
+     * EmptyCellEvaluator constructor
+     * @param weight Value of each empty cell
+     */
+    public EmptyCellEvaluator(double weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Evaluates a board
+     * @param board The packed board
+     * @return The weighted empty cell count
+     */
+    @Override
+    public double evaluate(long board) {
+        return weight * Bitboard.countEmpty(board);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+/**
+ * Expectimax search over the game rules.
+ *
+ * Max nodes try the four flings; chance nodes average over every empty
+ * cell and tile value the spawn policy can produce. A node's value is
+ * the merge score collected on the way to the search horizon plus the
+ * evaluator's score of the board reached there, so the root value is
+ * the expected score of the best move.
+ *
+ * Searches deepen iteratively up to the maximum depth and stop early
+ * when the time budget runs out, keeping the deepest completed result.
+ * Branches whose probability of being reached falls below the minimum
+ * probability are evaluated statically instead of expanded. An optional
+ * transposition table caches max nodes across symmetries and searches.
+ *
+ * Not thread safe: use one instance per thread.
+ */
+public class Expectimax {
+
+    /**
+     * Default search depth in moves
+     */
+    public static final int DEFAULT_MAX_DEPTH = 3;
+
+    /**
+     * Default cut-off for the probability of reaching a branch
+     */
+    public static final double DEFAULT_MIN_PROBABILITY = 0.0001;
+
+    // The clock is only read every this many nodes (a power of two)
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    // Scores boards at the search horizon
+    private final BoardEvaluator evaluator;
+
+    // Probability that a spawned tile is a 2
+    private final double twoProbability;
+
+    // Probability that a spawned tile is a 4
+    private final double fourProbability;
+
+    // Deepest search in moves
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    // Wall-clock budget per search in nanoseconds, 0 for none
+    private long timeBudget;
+
+    // Branches less likely than this are not expanded
+    private double minProbability = DEFAULT_MIN_PROBABILITY;
+
+    // Cache of max node values, or null for none
+    private TranspositionTable table;
+
+    // Nodes evaluated by the current search
+    private long nodes;
+
+    // System.nanoTime() at which the current search must stop
+    private long deadline;
+
+    // Whether the current iteration may be abandoned for time
+    private boolean canAbort;
+
+    // Whether the current iteration ran out of time
+    private boolean timedOut;
+
+    /**
+     * Expectimax constructor
+     * @param evaluator Scores boards at the search horizon
+     * @param spawnPolicy The spawn rules the game is played with
+     */
+    public Expectimax(BoardEvaluator evaluator, SpawnPolicy spawnPolicy) {
+        this.evaluator = evaluator;
+        this.fourProbability = spawnPolicy.getFourProbability();
+        this.twoProbability = 1 - fourProbability;
+    }
+
+    /**
+     * Sets the deepest search
+     * @param maxDepth Depth in moves, at least 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets the wall-clock budget of each search. A depth 1 search always
+     * completes; deeper iterations are abandoned when the budget runs out.
+     * @param millis Budget in milliseconds, 0 for no limit
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("time budget must not be negative");
+        }
+        this.timeBudget = millis * 1000000L;
+    }
+
+    /**
+     * Sets the probability below which branches are not expanded
+     * @param minProbability Cumulative probability of reaching a branch
+     */
+    public void setMinProbability(double minProbability) {
+        this.minProbability = minProbability;
+    }
+
+    /**
+     * Sets the transposition table used to cache max nodes. Entries stay
+     * valid from one search to the next, so the table can be kept for a
+     * whole game as long as the evaluator and spawn policy do not change.
+     * @param table The table, or null to search without one
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Finds the best move on a board
+     * @param board The packed board, before any tile is spawned on it
+     * @return The best move and its expected value
+     */
+    public SearchResult search(long board) {
+        nodes = 0;
+        timedOut = false;
+        deadline = timeBudget > 0 ? System.nanoTime() + timeBudget : Long.MAX_VALUE;
+
+        int legalMoves = Bitboard.legalMoves(board);
+        if (legalMoves == 0) {
+            return new SearchResult(-1, 0, 0, 0);
+        }
+
+        int bestMove = -1;
+        double bestValue = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            canAbort = depth > 1;
+
+            int move = -1;
+            double value = Double.NEGATIVE_INFINITY;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (!Bitboard.canMove(legalMoves, direction)) {
+                    continue;
+                }
+                double moveValue = Bitboard.score(board, direction) +
+                        chance(Bitboard.move(board, direction), depth - 1, 1);
+                if (moveValue > value) {
+                    value = moveValue;
+                    move = direction;
+                }
+            }
+
+            if (timedOut) {
+                break;
+            }
+            bestMove = move;
+            bestValue = value;
+            completedDepth = depth;
+        }
+
+        return new SearchResult(bestMove, bestValue, completedDepth, nodes);
+    }
+
+    /**
+     * Gets the number of nodes evaluated by the last search
+     * @return The node count
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Value of a chance node: the average over every possible spawn
+     * @param board Board after a move, with at least one empty cell
+     * @param depth Moves left to search
+     * @param probability Probability of reaching this node
+     * @return The expected value
+     */
+    private double chance(long board, int depth, double probability) {
+        if (depth == 0 || probability < minProbability) {
+            nodes++;
+            return evaluator.evaluate(board);
+        }
+
+        int empty = Bitboard.emptyMask(board);
+        int count = Integer.bitCount(empty);
+        double cellProbability = probability / count;
+        double total = 0;
+        while (empty != 0) {
+            int shift = Integer.numberOfTrailingZeros(empty) * 4;
+            empty &= empty - 1;
+
+            total += twoProbability *
+                    max(board | 1L << shift, depth, cellProbability * twoProbability);
+            if (fourProbability > 0) {
+                total += fourProbability *
+                        max(board | 2L << shift, depth, cellProbability * fourProbability);
+            }
+        }
+        return total / count;
+    }
+
+    /**
+     * Value of a max node: the best fling
+     * @param board Board after a spawn
+     * @param depth Moves left to search
+     * @param probability Probability of reaching this node
+     * @return The value of the best fling, 0 if the game is lost
+     */
+    private double max(long board, int depth, double probability) {
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && canAbort &&
+                System.nanoTime() > deadline) {
+            timedOut = true;
+        }
+        if (timedOut) {
+            return 0;
+        }
+
+        if (table != null) {
+            long entry = table.probe(board, depth);
+            if (entry != TranspositionTable.MISS) {
+                return TranspositionTable.entryValue(entry);
+            }
+        }
+
+        int legalMoves = Bitboard.legalMoves(board);
+        double best = 0;
+        int bestMove = -1;
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            if (!Bitboard.canMove(legalMoves, direction)) {
+                continue;
+            }
+            double value = Bitboard.score(board, direction) +
+                    chance(Bitboard.move(board, direction), depth - 1, probability);
+            if (value > best) {
+                best = value;
+                bestMove = direction;
+            }
+        }
+
+        // A timed out value is incomplete and must not be cached
+        if (table != null && !timedOut) {
+            table.store(board, depth, best, bestMove);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+
+/**
+ * Hand-tuned static evaluation built from per-line terms.
+ *
+ * Every row and column is scored on its own for empty cells, pairs of
+ * equal tiles that could merge, monotonicity, smoothness, and whether
+ * its largest tile sits at an end (a tile in a corner is at the end of
+ * both its row and its column). Since a line is a 16-bit packed row,
+ * the weighted score of all 65,536 lines is computed once when the
+ * evaluator is created, and evaluating a board is eight table lookups:
+ * its four rows plus the four rows of its transpose.
+ *
+ * Symmetric boards evaluate equally, as the transposition table needs.
+ * Immutable, so one instance can be shared by any number of threads.
+ */
+public final class HeuristicEvaluator implements BoardEvaluator {
+
+    // Number of distinct packed lines
+    private static final int LINE_COUNT = 1 << 16;
+
+    // Weighted score of every packed line
+    private final float[] lineScores = new float[LINE_COUNT];
+
+    // Constant added to every board
+    private final double base;
+
+    /**
+     * HeuristicEvaluator constructor with the default weights
+     */
+    public HeuristicEvaluator() {
+        this(new HeuristicWeights());
+    }
+
+    /**
+     * HeuristicEvaluator constructor
+     * @param weights Weights of the terms, copied into the line table
+     */
+    public HeuristicEvaluator(HeuristicWeights weights) {
+        this.base = weights.getBase();
+        for (int line = 0; line < LINE_COUNT; line++) {
+            lineScores[line] = (float)scoreLine(line, weights);
+        }
+    }
+
+    @Override
+    public double evaluate(long board) {
+        long transposed = Bitboard.transpose(board);
+        double total = base +
+                lineScores[(int)board & 0xFFFF] +
+                lineScores[(int)(board >>> 16) & 0xFFFF] +
+                lineScores[(int)(board >>> 32) & 0xFFFF] +
+                lineScores[(int)(board >>> 48)] +
+                lineScores[(int)transposed & 0xFFFF] +
+                lineScores[(int)(transposed >>> 16) & 0xFFFF] +
+                lineScores[(int)(transposed >>> 32) & 0xFFFF] +
+                lineScores[(int)(transposed >>> 48)];
+        return Math.max(total, 0);
+    }
+
+    /**
+     * Scores one line, the reference for the table
+     * @param line The packed line, tile 0 in the lowest 4 bits
+     * @param weights Weights of the terms
+     * @return The weighted sum of the line's terms, without the base
+     */
+    static double scoreLine(int line, HeuristicWeights weights) {
+        int[] ranks = new int[Bitboard.SIZE];
+        for (int i = 0; i < Bitboard.SIZE; i++) {
+            ranks[i] = (line >>> (i * 4)) & 0xF;
+        }
+
+        int empty = 0;
+        int largest = 0;
+        for (int rank : ranks) {
+            if (rank == 0) {
+                empty++;
+            }
+            largest = Math.max(largest, rank);
+        }
+
+        // Merges and smoothness look at tiles that are neighbours once
+        // the empty cells between them are closed up
+        int merges = 0;
+        int roughness = 0;
+        int previous = 0;
+        for (int rank : ranks) {
+            if (rank == 0) {
+                continue;
+            }
+            if (previous != 0) {
+                if (rank == previous) {
+                    merges++;
+                }
+                roughness += Math.abs(rank - previous);
+            }
+            previous = rank;
+        }
+
+        // Penalize the line for every step against its better direction
+        double towardStart = 0;
+        double towardEnd = 0;
+        double power = weights.getMonotonicityPower();
+        for (int i = 1; i < Bitboard.SIZE; i++) {
+            double a = Math.pow(ranks[i - 1], power);
+            double b = Math.pow(ranks[i], power);
+            if (a > b) {
+                towardEnd += a - b;
+            }
+            else {
+                towardStart += b - a;
+            }
+        }
+
+        boolean cornered = largest > 0 &&
+                (ranks[0] == largest || ranks[Bitboard.SIZE - 1] == largest);
+
+        return weights.getEmpty() * empty +
+                weights.getMerges() * merges -
+                weights.getMonotonicity() * Math.min(towardStart, towardEnd) -
+                weights.getSmoothness() * roughness +
+                (cornered ? weights.getCorner() * largest : 0);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Weights of the terms of the heuristic evaluation (see HeuristicEvaluator).
+ *
+ * Weights can be saved to and loaded from a properties file, so they can
+ * be tuned without a rebuild. Keys missing from a file keep their default.
+ */
+public final class HeuristicWeights {
+
+    /**
+     * Properties keys of the weights
+     */
+    public static final String BASE = "base",
+            EMPTY = "empty",
+            MERGES = "merges",
+            MONOTONICITY = "monotonicity",
+            MONOTONICITY_POWER = "monotonicityPower",
+            SMOOTHNESS = "smoothness",
+            CORNER = "corner";
+
+    // Constant added to every board, keeping evaluations positive
+    private double base = 200000;
+
+    // Reward per empty cell
+    private double empty = 270;
+
+    // Reward per pair of equal tiles that could merge
+    private double merges = 700;
+
+    // Penalty for lines that are not monotonic
+    private double monotonicity = 47;
+
+    // Exponent applied to tile ranks when measuring monotonicity
+    private double monotonicityPower = 4;
+
+    // Penalty per rank of difference between neighbouring tiles
+    private double smoothness = 10;
+
+    // Reward per rank of a line's largest tile when it sits at an end
+    private double corner = 20;
+
+    /**
+     * Loads weights from a properties file
+     * @param file The file
+     * @return The weights, with defaults for keys the file does not set
+     * @throws IOException If the file cannot be read
+     */
+    public static HeuristicWeights load(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return load(in);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads weights in properties format
+     * @param in The stream, which is left open
+     * @return The weights, with defaults for keys the stream does not set
+     * @throws IOException If the stream cannot be read
+     */
+    public static HeuristicWeights load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+
+        HeuristicWeights weights = new HeuristicWeights();
+        weights.base = get(properties, BASE, weights.base);
+        weights.empty = get(properties, EMPTY, weights.empty);
+        weights.merges = get(properties, MERGES, weights.merges);
+        weights.monotonicity = get(properties, MONOTONICITY, weights.monotonicity);
+        weights.monotonicityPower = get(properties, MONOTONICITY_POWER, weights.monotonicityPower);
+        weights.smoothness = get(properties, SMOOTHNESS, weights.smoothness);
+        weights.corner = get(properties, CORNER, weights.corner);
+        return weights;
+    }
+
+    /**
+     * Saves the weights in properties format
+     * @param out The stream, which is left open
+     * @throws IOException If the stream cannot be written
+     */
+    public void store(OutputStream out) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(BASE, Double.toString(base));
+        properties.setProperty(EMPTY, Double.toString(empty));
+        properties.setProperty(MERGES, Double.toString(merges));
+        properties.setProperty(MONOTONICITY, Double.toString(monotonicity));
+        properties.setProperty(MONOTONICITY_POWER, Double.toString(monotonicityPower));
+        properties.setProperty(SMOOTHNESS, Double.toString(smoothness));
+        properties.setProperty(CORNER, Double.toString(corner));
+        properties.store(out, "Heuristic evaluation weights");
+    }
+
+    /**
+     * Gets the constant added to every board
+     * @return The weight
+     */
+    public double getBase() {
+        return base;
+    }
+
+    /**
+     * Sets the constant added to every board
+     * @param base The weight
+     */
+    public void setBase(double base) {
+        this.base = base;
+    }
+
+    /**
+     * Gets the reward per empty cell
+     * @return The weight
+     */
+    public double getEmpty() {
+        return empty;
+    }
+
+    /**
+     * Sets the reward per empty cell
+     * @param empty The weight
+     */
+    public void setEmpty(double empty) {
+        this.empty = empty;
+    }
+
+    /**
+     * Gets the reward per pair of tiles that could merge
+     * @return The weight
+     */
+    public double getMerges() {
+        return merges;
+    }
+
+    /**
+     * Sets the reward per pair of tiles that could merge
+     * @param merges The weight
+     */
+    public void setMerges(double merges) {
+        this.merges = merges;
+    }
+
+    /**
+     * Gets the penalty for lines that are not monotonic
+     * @return The weight
+     */
+    public double getMonotonicity() {
+        return monotonicity;
+    }
+
+    /**
+     * Sets the penalty for lines that are not monotonic
+     * @param monotonicity The weight
+     */
+    public void setMonotonicity(double monotonicity) {
+        this.monotonicity = monotonicity;
+    }
+
+    /**
+     * Gets the exponent applied to tile ranks when measuring monotonicity
+     * @return The weight
+     */
+    public double getMonotonicityPower() {
+        return monotonicityPower;
+    }
+
+    /**
+     * Sets the exponent applied to tile ranks when measuring monotonicity
+     * @param monotonicityPower The weight
+     */
+    public void setMonotonicityPower(double monotonicityPower) {
+        this.monotonicityPower = monotonicityPower;
+    }
+
+    /**
+     * Gets the penalty per rank of difference between neighbouring tiles
+     * @return The weight
+     */
+    public double getSmoothness() {
+        return smoothness;
+    }
+
+    /**
+     * Sets the penalty per rank of difference between neighbouring tiles
+     * @param smoothness The weight
+     */
+    public void setSmoothness(double smoothness) {
+        this.smoothness = smoothness;
+    }
+
+    /**
+     * Gets the reward per rank of a line's largest tile at an end
+     * @return The weight
+     */
+    public double getCorner() {
+        return corner;
+    }
+
+    /**
+     * Sets the reward per rank of a line's largest tile at an end
+     * @param corner The weight
+     */
+    public void setCorner(double corner) {
+        this.corner = corner;
+    }
+
+    /**
+     * Reads one weight
+     * @param properties The loaded properties
+     * @param key The weight's key
+     * @param fallback Value if the key is not set
+     * @return The weight
+     */
+    private static double get(Properties properties, String key, double fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad value for weight " + key + ": " + value);
+        }
+    }
+}
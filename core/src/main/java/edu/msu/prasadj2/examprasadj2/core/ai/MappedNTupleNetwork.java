@@ -0,0 +1,108 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only n-tuple network evaluated straight from a memory-mapped file.
+ *
+ * Opening a saved network (see NTupleNetwork.save) only reads its header
+ * and maps each weight table; no weights are copied into the heap, so
+ * opening takes about the same time whatever the size of the file. The
+ * operating system pages weights in as lookups touch them and shares the
+ * pages between every process that maps the same file.
+ *
+ * The file must not be modified while it is mapped. The mapping lasts
+ * until the network is garbage collected. Thread safe.
+ */
+public final class MappedNTupleNetwork implements BoardEvaluator {
+
+    // Cells of each tuple, as nibble indexes (row * 4 + col)
+    private final int[][] tuples;
+
+    // Weight table of each tuple, a view of the mapped file
+    private final FloatBuffer[] weights;
+
+    /**
+     * MappedNTupleNetwork constructor
+     * @param tuples Cells of each tuple
+     * @param weights Weight table of each tuple
+     */
+    private MappedNTupleNetwork(int[][] tuples, FloatBuffer[] weights) {
+        this.tuples = tuples;
+        this.weights = weights;
+    }
+
+    /**
+     * Maps a saved network
+     * @param file The file written by NTupleNetwork.save
+     * @return The network
+     * @throws IOException If the file cannot be mapped or is not a network
+     */
+    public static MappedNTupleNetwork open(File file) throws IOException {
+        RandomAccessFile access = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = access.getChannel();
+            long size = channel.size();
+
+            // The header is small; map no more of it than the file holds
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(size, 1 << 16));
+            NTupleFile layout = NTupleFile.read(header);
+            if (size < layout.fileSize()) {
+                throw new IOException("Truncated n-tuple network: " + size + " bytes");
+            }
+
+            // Map the tables one by one, so no single mapping nears 2 GB
+            int[][] tuples = layout.getTuples();
+            FloatBuffer[] weights = new FloatBuffer[tuples.length];
+            for (int t = 0; t < tuples.length; t++) {
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY,
+                        layout.tableOffset(t), 4L * NTupleFile.tableSize(tuples[t]));
+                weights[t] = table.order(NTupleFile.ORDER).asFloatBuffer();
+            }
+            return new MappedNTupleNetwork(tuples, weights);
+        }
+        finally {
+            // Mappings stay valid after the channel is closed
+            access.close();
+        }
+    }
+
+    /**
+     * Evaluates a board, clamped at 0 as searches expect
+     * @param board The packed board
+     * @return The learned value, at least 0
+     */
+    @Override
+    public double evaluate(long board) {
+        return Math.max(value(board), 0);
+    }
+
+    /**
+     * Gets the learned value of a board
+     * @param board The packed board
+     * @return The sum of the selected weights over every symmetry
+     */
+    public float value(long board) {
+        float total = 0;
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            long transformed = Symmetry.apply(board, symmetry);
+            for (int t = 0; t < tuples.length; t++) {
+                total += weights[t].get(NTupleNetwork.index(transformed, tuples[t]));
+            }
+        }
+        return total;
+    }
+}
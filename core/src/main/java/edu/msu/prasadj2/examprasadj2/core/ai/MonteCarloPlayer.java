@@ -0,0 +1,340 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Player that rates each fling by playing it out many times.
+ *
+ * The playout budget of a move is split evenly between the legal flings,
+ * the remainder going one each to the first flings in direction order,
+ * so a search runs exactly the budget; with fewer playouts than legal
+ * flings, the flings left without one are not considered.
+ *
+ * Each playout applies the fling, then keeps spawning tiles and flinging
+ * with a cheap rollout policy until the game is over or the depth cap is
+ * reached. The fling with the best average score wins.
+ *
+ * Playouts run in fixed-size chunks on a fork-join pool. Every chunk has
+ * its own random stream, split from the player's before any chunk starts,
+ * and keeps its results to itself until it is done, so workers share no
+ * mutable state and a seeded player picks the same moves whatever the
+ * number of threads. A search must not be started while another is running.
+ *
+ * In the SearchResult, the depth is 1, the one ply that is searched in
+ * full, and the node count is the number of playouts; the flings the
+ * playouts simulated are available from getLastFlings().
+ */
+public class MonteCarloPlayer {
+
+    /**
+     * How playouts pick their flings
+     */
+    public enum RolloutPolicy {
+        /** A uniformly random legal fling */
+        RANDOM,
+        /** The legal fling that merges the most, ties broken uniformly at random */
+        GREEDY
+    }
+
+    /**
+     * Default number of playouts per move
+     */
+    public static final int DEFAULT_PLAYOUTS = 400;
+
+    // Playouts per task, fixed so results do not depend on the pool size
+    private static final int CHUNK = 16;
+
+    // Spawn rules of the game
+    private final SpawnPolicy spawnPolicy;
+
+    // Workers that run the playouts
+    private final ForkJoinPool pool;
+
+    // Source of the playouts' random streams
+    private final GameRandom random;
+
+    // Playouts per move, shared between the legal flings
+    private int playouts = DEFAULT_PLAYOUTS;
+
+    // Most flings per playout after the first, 0 to play to the end
+    private int depthCap;
+
+    // How playouts pick their flings
+    private RolloutPolicy rolloutPolicy = RolloutPolicy.RANDOM;
+
+    // Playouts run by the last search
+    private long lastPlayouts;
+
+    // Flings simulated by the last search's playouts
+    private long lastFlings;
+
+    // Wall-clock time of the last search in nanoseconds
+    private long lastNanos;
+
+    /**
+     * MonteCarloPlayer constructor
+     * @param spawnPolicy The spawn rules the game is played with
+     * @param pool Pool that runs the playouts, sized to the cores to use
+     * @param seed Seed of the playouts' random streams
+     */
+    public MonteCarloPlayer(SpawnPolicy spawnPolicy, ForkJoinPool pool, long seed) {
+        this.spawnPolicy = spawnPolicy;
+        this.pool = pool;
+        this.random = new GameRandom(seed);
+    }
+
+    /**
+     * Sets the playout budget of each move, trading quality for latency
+     * @param playouts Playouts per move, at least 1
+     */
+    public void setPlayouts(int playouts) {
+        if (playouts < 1) {
+            throw new IllegalArgumentException("playouts must be at least 1");
+        }
+        this.playouts = playouts;
+    }
+
+    /**
+     * Sets the longest playout
+     * @param depthCap Most flings after the first, 0 to play to the end
+     */
+    public void setDepthCap(int depthCap) {
+        if (depthCap < 0) {
+            throw new IllegalArgumentException("depthCap must not be negative");
+        }
+        this.depthCap = depthCap;
+    }
+
+    /**
+     * Sets how playouts pick their flings
+     * @param rolloutPolicy The rollout policy
+     */
+    public void setRolloutPolicy(RolloutPolicy rolloutPolicy) {
+        this.rolloutPolicy = rolloutPolicy;
+    }
+
+    /**
+     * Finds the best move on a board
+     * @param board The packed board, before any tile is spawned on it
+     * @return The best move, its average playout score, depth 1 and the
+     * number of playouts as the node count
+     */
+    public SearchResult search(long board) {
+        long start = System.nanoTime();
+        int legalMoves = Bitboard.legalMoves(board);
+        if (legalMoves == 0) {
+            lastPlayouts = 0;
+            lastFlings = 0;
+            lastNanos = System.nanoTime() - start;
+            return new SearchResult(-1, 0, 0, 0);
+        }
+
+        // Split the budget and hand every chunk its own stream up front
+        int legalCount = Integer.bitCount(legalMoves);
+        int[] counts = new int[Bitboard.DIRECTIONS];
+        int extra = playouts % legalCount;
+        List<PlayoutTask> tasks = new ArrayList<>();
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            if (!Bitboard.canMove(legalMoves, direction)) {
+                continue;
+            }
+            counts[direction] = playouts / legalCount;
+            if (extra > 0) {
+                counts[direction]++;
+                extra--;
+            }
+            for (int done = 0; done < counts[direction]; done += CHUNK) {
+                tasks.add(new PlayoutTask(board, direction, Math.min(CHUNK, counts[direction] - done),
+                        random.split()));
+            }
+        }
+        pool.invoke(new RootTask(tasks));
+
+        long[] totals = new long[Bitboard.DIRECTIONS];
+        long flings = 0;
+        for (PlayoutTask task : tasks) {
+            totals[task.direction] += task.totalScore;
+            flings += task.flings;
+        }
+        int bestMove = -1;
+        double bestValue = -1;
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            if (counts[direction] == 0) {
+                continue;
+            }
+            double value = (double)totals[direction] / counts[direction];
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = direction;
+            }
+        }
+
+        lastPlayouts = playouts;
+        lastFlings = flings;
+        lastNanos = System.nanoTime() - start;
+        return new SearchResult(bestMove, bestValue, 1, playouts);
+    }
+
+    /**
+     * Gets the number of playouts the last search ran
+     * @return The playout count
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Gets the number of flings the last search's playouts simulated
+     * @return The fling count, not counting the first fling of each playout
+     */
+    public long getLastFlings() {
+        return lastFlings;
+    }
+
+    /**
+     * Gets the playout rate of the last search
+     * @return Playouts per second
+     */
+    public double getPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1e9 / lastNanos;
+    }
+
+    /**
+     * Runs all the chunks of a search
+     */
+    private static final class RootTask extends RecursiveAction {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // The chunks
+        private final List<PlayoutTask> tasks;
+
+        RootTask(List<PlayoutTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(tasks);
+        }
+    }
+
+    /**
+     * A chunk of playouts of one fling
+     */
+    private final class PlayoutTask extends RecursiveAction {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // Board the playouts start from
+        private final long board;
+
+        // First fling of every playout
+        private final int direction;
+
+        // Number of playouts
+        private final int count;
+
+        // This chunk's own random stream
+        private final GameRandom random;
+
+        // Sum of the playouts' scores, set by compute()
+        long totalScore;
+
+        // Flings played by all the playouts, set by compute()
+        long flings;
+
+        PlayoutTask(long board, int direction, int count, GameRandom random) {
+            this.board = board;
+            this.direction = direction;
+            this.count = count;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            long first = Bitboard.move(board, direction);
+            int firstScore = Bitboard.score(board, direction);
+            for (int i = 0; i < count; i++) {
+                totalScore += firstScore + playout(first);
+            }
+        }
+
+        /**
+         * Plays from a board after a fling until the game is over or the
+         * depth cap is reached
+         * @param board The board, before its tile is spawned
+         * @return The score collected after the first fling
+         */
+        private int playout(long board) {
+            int score = 0;
+            for (int depth = 0; depthCap == 0 || depth < depthCap; depth++) {
+                board = spawnPolicy.spawn(board, random);
+                int legalMoves = Bitboard.legalMoves(board);
+                if (legalMoves == 0) {
+                    break;
+                }
+                int direction = rolloutPolicy == RolloutPolicy.GREEDY ?
+                        greedy(board, legalMoves) : pick(legalMoves, random.nextInt(Integer.bitCount(legalMoves)));
+                score += Bitboard.score(board, direction);
+                board = Bitboard.move(board, direction);
+                flings++;
+            }
+            return score;
+        }
+
+        /**
+         * Picks the legal fling that merges the most
+         * @param board The packed board
+         * @param legalMoves Its legal flings, at least one
+         * @return The fling, picked uniformly among those that tie
+         */
+        private int greedy(long board, int legalMoves) {
+            // Mask of the flings with the best merge score so far
+            int best = 0;
+            int bestScore = -1;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (Bitboard.canMove(legalMoves, direction)) {
+                    int score = Bitboard.score(board, direction);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = 1 << direction;
+                    }
+                    else if (score == bestScore) {
+                        best |= 1 << direction;
+                    }
+                }
+            }
+            int ties = Integer.bitCount(best);
+            return pick(best, ties == 1 ? 0 : random.nextInt(ties));
+        }
+    }
+
+    /**
+     * Picks one of the legal flings
+     * @param legalMoves Mask of the legal flings
+     * @param k Which of them, from 0 to the number of legal flings - 1
+     * @return The k-th legal fling in direction order
+     */
+    private static int pick(int legalMoves, int k) {
+        for (int i = 0; i < k; i++) {
+            legalMoves &= legalMoves - 1;
+        }
+        return Integer.numberOfTrailingZeros(legalMoves);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Layout of saved n-tuple networks, designed to be memory-mapped.
+ *
+ * All values are little-endian. The file starts with a header:
+ *
+ *   int magic, int version, int tuple count, int data offset,
+ *   then per tuple a byte cell count followed by a byte per cell.
+ *
+ * The weight tables follow at the data offset, which is a multiple of
+ * ALIGNMENT, one after the other in tuple order, 16^cells floats each.
+ * Every table starts 4-byte aligned, so the floats can be read straight
+ * from a mapping of the file.
+ */
+final class NTupleFile {
+
+    /**
+     * Identifies the format
+     */
+    static final int MAGIC = 0x4E545550;
+
+    /**
+     * Version of the format
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Byte order of everything in the file
+     */
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Alignment of the start of the weight tables
+     */
+    static final int ALIGNMENT = 64;
+
+    /**
+     * Most cells a tuple can have
+     */
+    static final int MAX_CELLS = 6;
+
+    // Bytes of the fixed part of the header
+    private static final int FIXED_HEADER = 16;
+
+    // Cells of each tuple
+    private final int[][] tuples;
+
+    // Byte offset of the first weight table
+    private final int dataOffset;
+
+    /**
+     * NTupleFile constructor
+     * @param tuples Cells of each tuple
+     */
+    NTupleFile(int[][] tuples) {
+        this.tuples = tuples;
+        int size = FIXED_HEADER;
+        for (int[] cells : tuples) {
+            size += 1 + cells.length;
+        }
+        this.dataOffset = (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Reads a header
+     * @param header Buffer positioned at the start of the file, holding at
+     *               least the whole header; its byte order is changed
+     * @return The layout the header describes
+     * @throws IOException If the buffer does not hold a valid header
+     */
+    static NTupleFile read(ByteBuffer header) throws IOException {
+        header.order(ORDER);
+        try {
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an n-tuple network");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported network version " + version);
+            }
+            int count = header.getInt();
+            int dataOffset = header.getInt();
+            if (count < 0 || count > 1024) {
+                throw new IOException("Bad tuple count " + count);
+            }
+
+            int[][] tuples = new int[count][];
+            for (int t = 0; t < count; t++) {
+                tuples[t] = new int[header.get() & 0xFF];
+                if (tuples[t].length < 1 || tuples[t].length > MAX_CELLS) {
+                    throw new IOException("Bad tuple length " + tuples[t].length);
+                }
+                for (int i = 0; i < tuples[t].length; i++) {
+                    tuples[t][i] = header.get() & 0xFF;
+                    if (tuples[t][i] >= 16) {
+                        throw new IOException("No such cell: " + tuples[t][i]);
+                    }
+                }
+            }
+
+            NTupleFile file = new NTupleFile(tuples);
+            if (file.dataOffset != dataOffset) {
+                throw new IOException("Bad data offset " + dataOffset);
+            }
+            return file;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("Truncated n-tuple network header");
+        }
+    }
+
+    /**
+     * Writes the header, padded to the data offset
+     * @return Buffer holding the header, ready to be written
+     */
+    ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(dataOffset).order(ORDER);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(tuples.length);
+        header.putInt(dataOffset);
+        for (int[] cells : tuples) {
+            header.put((byte)cells.length);
+            for (int cell : cells) {
+                header.put((byte)cell);
+            }
+        }
+        header.rewind();
+        return header;
+    }
+
+    /**
+     * Gets the cells of each tuple
+     * @return The tuples
+     */
+    int[][] getTuples() {
+        return tuples;
+    }
+
+    /**
+     * Gets the byte offset of a weight table
+     * @param tuple Index of the tuple
+     * @return Offset of its first float from the start of the file
+     */
+    long tableOffset(int tuple) {
+        long offset = dataOffset;
+        for (int t = 0; t < tuple; t++) {
+            offset += 4L * tableSize(tuples[t]);
+        }
+        return offset;
+    }
+
+    /**
+     * Gets the total size of the file
+     * @return The size in bytes
+     */
+    long fileSize() {
+        return tableOffset(tuples.length);
+    }
+
+    /**
+     * Gets the number of weights of a tuple
+     * @param cells Cells of the tuple
+     * @return 16 to the power of the cell count
+     */
+    static int tableSize(int[] cells) {
+        return 1 << (4 * cells.length);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Learned evaluation of boards as a sum of n-tuple lookups.
+ *
+ * An n-tuple is a fixed list of cells. The exponents in those cells form
+ * an index into the tuple's weight table, and a board's value is the sum
+ * of the weights its tuples select, over all eight symmetries of the
+ * board. Values estimate the score still to come from a board reached
+ * by a move (an afterstate), and are learned by NTupleTrainer.
+ *
+ * Weights live in plain float arrays with no locking. Updates from
+ * several threads may occasionally overwrite each other, which training
+ * tolerates (Hogwild); evaluation alone is thread safe. Saved networks
+ * can also be used without loading them, see MappedNTupleNetwork.
+ */
+public final class NTupleNetwork implements BoardEvaluator {
+
+    /**
+     * The straight and square 4-tuples: the outer and inner rows, and
+     * 2x2 squares at a corner, an edge and the center. With symmetries
+     * these cover every row, column and square of the board.
+     */
+    public static final int[][] LINES_AND_SQUARES = {
+            {0, 1, 2, 3},
+            {4, 5, 6, 7},
+            {0, 1, 4, 5},
+            {1, 2, 5, 6},
+            {5, 6, 9, 10},
+    };
+
+    // Bytes copied at a time when saving and loading weights
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    // Cells of each tuple, as nibble indexes (row * 4 + col)
+    private final int[][] tuples;
+
+    // Weight table of each tuple, indexed by the exponents in its cells
+    private final float[][] weights;
+
+    /**
+     * NTupleNetwork constructor, with all weights 0
+     * @param tuples Cells of each tuple, as nibble indexes (row * 4 + col)
+     */
+    public NTupleNetwork(int[][] tuples) {
+        this.tuples = new int[tuples.length][];
+        this.weights = new float[tuples.length][];
+        for (int t = 0; t < tuples.length; t++) {
+            int[] cells = tuples[t];
+            if (cells.length < 1 || cells.length > NTupleFile.MAX_CELLS) {
+                throw new IllegalArgumentException("Tuples must have 1 to " +
+                        NTupleFile.MAX_CELLS + " cells");
+            }
+            for (int cell : cells) {
+                if (cell < 0 || cell >= 16) {
+                    throw new IllegalArgumentException("No such cell: " + cell);
+                }
+            }
+            this.tuples[t] = cells.clone();
+            this.weights[t] = new float[NTupleFile.tableSize(cells)];
+        }
+    }
+
+    /**
+     * Evaluates a board, clamped at 0 as searches expect
+     * @param board The packed board
+     * @return The learned value, at least 0
+     */
+    @Override
+    public double evaluate(long board) {
+        return Math.max(value(board), 0);
+    }
+
+    /**
+     * Gets the learned value of a board
+     * @param board The packed board
+     * @return The sum of the selected weights over every symmetry
+     */
+    public float value(long board) {
+        float total = 0;
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            long transformed = Symmetry.apply(board, symmetry);
+            for (int t = 0; t < tuples.length; t++) {
+                total += weights[t][index(transformed, tuples[t])];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds to every weight a board selects
+     * @param board The packed board
+     * @param delta Amount added to each selected weight
+     */
+    public void update(long board, float delta) {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            long transformed = Symmetry.apply(board, symmetry);
+            for (int t = 0; t < tuples.length; t++) {
+                weights[t][index(transformed, tuples[t])] += delta;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of weights a board selects: one per tuple and symmetry
+     * @return The count
+     */
+    public int getActiveWeights() {
+        return tuples.length * Symmetry.COUNT;
+    }
+
+    /**
+     * Saves the tuples and weights in the mappable format (see NTupleFile).
+     * Safe while training is running, but the saved weights may then mix
+     * values from before and after updates.
+     * @param out The stream, which is left open
+     * @throws IOException If the stream cannot be written
+     */
+    public void save(OutputStream out) throws IOException {
+        out.write(new NTupleFile(tuples).header().array());
+
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(NTupleFile.ORDER);
+        FloatBuffer floats = chunk.asFloatBuffer();
+        for (float[] table : weights) {
+            for (int start = 0; start < table.length; start += floats.capacity()) {
+                int count = Math.min(floats.capacity(), table.length - start);
+                floats.clear();
+                floats.put(table, start, count);
+                out.write(chunk.array(), 0, count * 4);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Loads a saved network into the heap
+     * @param in The stream, which is left open
+     * @return The network
+     * @throws IOException If the stream cannot be read or is not a network
+     */
+    public static NTupleNetwork load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        // The fixed part of the header says how long the whole header is
+        byte[] fixed = new byte[16];
+        data.readFully(fixed);
+        int dataOffset = ByteBuffer.wrap(fixed).order(NTupleFile.ORDER).getInt(12);
+        if (dataOffset < fixed.length || dataOffset > CHUNK_BYTES) {
+            throw new IOException("Not an n-tuple network");
+        }
+        byte[] header = new byte[dataOffset];
+        System.arraycopy(fixed, 0, header, 0, fixed.length);
+        data.readFully(header, fixed.length, dataOffset - fixed.length);
+
+        NTupleNetwork network = new NTupleNetwork(NTupleFile.read(ByteBuffer.wrap(header)).getTuples());
+
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(NTupleFile.ORDER);
+        FloatBuffer floats = chunk.asFloatBuffer();
+        for (float[] table : network.weights) {
+            for (int start = 0; start < table.length; start += floats.capacity()) {
+                int count = Math.min(floats.capacity(), table.length - start);
+                data.readFully(chunk.array(), 0, count * 4);
+                floats.clear();
+                floats.get(table, start, count);
+            }
+        }
+        return network;
+    }
+
+    /**
+     * Computes a tuple's weight index on a board
+     * @param board The packed board
+     * @param cells Cells of the tuple
+     * @return The exponents in the cells, packed 4 bits each
+     */
+    static int index(long board, int[] cells) {
+        int index = 0;
+        for (int i = 0; i < cells.length; i++) {
+            index |= ((int)(board >>> (cells[i] * 4)) & 0xF) << (i * 4);
+        }
+        return index;
+    }
+}
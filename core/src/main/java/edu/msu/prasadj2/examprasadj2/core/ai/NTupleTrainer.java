@@ -0,0 +1,247 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trains an n-tuple network by temporal difference learning from self-play.
+ *
+ * Each game is played greedily: the move taken maximizes its merge score
+ * plus the network's value of the board it leads to (the afterstate).
+ * After every move, the previous afterstate's value is moved toward the
+ * reward of the new move plus the new afterstate's value, TD(0) style;
+ * the last afterstate of a game is moved toward 0.
+ *
+ * Games run on several worker threads at once, each with its own engine
+ * and random stream split from the seed, and all update the same network
+ * without locks (Hogwild). Runs are therefore not reproducible with more
+ * than one thread. The network can be saved every so many games.
+ */
+public class NTupleTrainer {
+
+    /**
+     * Default step size of the weight updates
+     */
+    public static final float DEFAULT_LEARNING_RATE = 0.0025f;
+
+    // The network being trained
+    private final NTupleNetwork network;
+
+    // The spawn rules the games are played with
+    private final SpawnPolicy spawnPolicy;
+
+    // Step size of the weight updates
+    private float learningRate = DEFAULT_LEARNING_RATE;
+
+    // Number of worker threads
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Where checkpoints are written, or null for none
+    private File checkpointFile;
+
+    // Games between checkpoints
+    private long checkpointInterval;
+
+    // Serializes checkpoint writes
+    private final Object checkpointLock = new Object();
+
+    /**
+     * NTupleTrainer constructor
+     * @param network The network to train, updated in place
+     * @param spawnPolicy The spawn rules the games are played with
+     */
+    public NTupleTrainer(NTupleNetwork network, SpawnPolicy spawnPolicy) {
+        this.network = network;
+        this.spawnPolicy = spawnPolicy;
+    }
+
+    /**
+     * Sets the step size of the weight updates
+     * @param learningRate The step size, applied to every selected weight
+     */
+    public void setLearningRate(float learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Sets the number of worker threads
+     * @param threads Thread count, at least 1; defaults to the core count
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Saves the network to a file every so many games while training.
+     * Each checkpoint is written to a temporary file first and then
+     * renamed, so the file always holds a complete network.
+     * @param file Where to save, or null to stop checkpointing
+     * @param interval Games between checkpoints, at least 1
+     */
+    public void setCheckpoint(File file, long interval) {
+        if (file != null && interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Plays and learns from a number of games
+     * @param games Number of games to play
+     * @param seed Seed the workers' random streams are split from
+     * @return Throughput and score statistics of the run
+     * @throws IOException If a checkpoint cannot be written
+     * @throws InterruptedException If interrupted while waiting for the workers
+     */
+    public TrainingResult train(long games, long seed) throws IOException, InterruptedException {
+        final AtomicLong remaining = new AtomicLong(games);
+        final AtomicLong played = new AtomicLong();
+        GameRandom random = new GameRandom(seed);
+
+        List<Callable<long[]>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final GameEngine engine = new GameEngine(random.split(), spawnPolicy);
+            workers.add(new Callable<long[]>() {
+                @Override
+                public long[] call() throws IOException {
+                    long totalScore = 0;
+                    long maxScore = 0;
+                    while (remaining.getAndDecrement() > 0) {
+                        int score = playGame(engine);
+                        totalScore += score;
+                        maxScore = Math.max(maxScore, score);
+                        long count = played.incrementAndGet();
+                        if (checkpointFile != null && count % checkpointInterval == 0) {
+                            checkpoint();
+                        }
+                    }
+                    return new long[] {totalScore, maxScore};
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long totalScore = 0;
+        long maxScore = 0;
+        try {
+            for (Future<long[]> future : executor.invokeAll(workers)) {
+                long[] result = future.get();
+                totalScore += result[0];
+                maxScore = Math.max(maxScore, result[1]);
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new TrainingResult(played.get(), threads, elapsed, totalScore, maxScore);
+    }
+
+    /**
+     * Plays one game from a new board, learning after every move
+     * @param engine The engine to play on, owned by the calling thread
+     * @return The final score
+     */
+    int playGame(GameEngine engine) {
+        engine.newGame();
+        long afterstate = 0;
+        boolean first = true;
+
+        while (true) {
+            long board = engine.getBoard();
+            int legalMoves = engine.getLegalMoves();
+
+            int bestMove = -1;
+            int bestReward = 0;
+            long bestAfterstate = 0;
+            float bestValue = 0;
+            float bestTotal = Float.NEGATIVE_INFINITY;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (!Bitboard.canMove(legalMoves, direction)) {
+                    continue;
+                }
+                int reward = Bitboard.score(board, direction);
+                long next = Bitboard.move(board, direction);
+                float value = network.value(next);
+                if (reward + value > bestTotal) {
+                    bestTotal = reward + value;
+                    bestMove = direction;
+                    bestReward = reward;
+                    bestAfterstate = next;
+                    bestValue = value;
+                }
+            }
+
+            // TD(0): the target is the next reward plus the next
+            // afterstate's value, or 0 once the game is over
+            float target = bestMove < 0 ? 0 : bestReward + bestValue;
+            if (!first) {
+                // Valued again now: the weights have changed since the move
+                // was chosen, by this game's last update and by other threads
+                float step = learningRate * (target - network.value(afterstate));
+                network.update(afterstate, step);
+            }
+            if (bestMove < 0) {
+                return engine.getScore();
+            }
+
+            first = false;
+            afterstate = bestAfterstate;
+            engine.fling(bestMove);
+        }
+    }
+
+    /**
+     * Saves the network to the checkpoint file
+     * @throws IOException If the file cannot be written
+     */
+    private void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            File temporary = new File(checkpointFile.getPath() + ".tmp");
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16);
+            try {
+                network.save(out);
+            }
+            finally {
+                out.close();
+            }
+            if (!temporary.renameTo(checkpointFile) &&
+                    !(checkpointFile.delete() && temporary.renameTo(checkpointFile))) {
+                throw new IOException("Cannot replace " + checkpointFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Expectimax search that spreads the tree over a fork-join pool.
+ *
+ * The four root flings are searched in parallel, and chance nodes within
+ * the parallel depth of the root fork one task per spawn; deeper nodes
+ * are searched sequentially by whichever worker owns them, and idle
+ * workers steal pending tasks. Max nodes can be cached in a transposition
+ * table shared by all workers.
+ *
+ * Results are deterministic: for a given board and depth the move and
+ * value are the same whatever the number of threads, because every node's
+ * value only depends on its board and remaining depth. To keep it that
+ * way this search has no time budget and no probability cut-off (both
+ * depend on timing or on the path to a node), cached values are only
+ * used at exactly the depth they were searched to, and with a table max
+ * nodes are searched in their canonical orientation and rounded to the
+ * precision the table stores, so whichever worker caches a node first
+ * stores exactly the value every other worker would have computed.
+ * Chance nodes add up their spawns in a fixed order. Only the node
+ * count may vary.
+ *
+ * The evaluator is called from several threads at once and must be
+ * thread safe. A search must not be started while another is running.
+ */
+public class ParallelExpectimax {
+
+    /**
+     * Default depth, in moves from the root, down to which chance nodes
+     * fork their spawns
+     */
+    public static final int DEFAULT_PARALLEL_DEPTH = 1;
+
+    // Scores boards at the search horizon
+    private final BoardEvaluator evaluator;
+
+    // Probability that a spawned tile is a 2
+    private final double twoProbability;
+
+    // Probability that a spawned tile is a 4
+    private final double fourProbability;
+
+    // Workers that run the search
+    private final ForkJoinPool pool;
+
+    // Search depth in moves
+    private int maxDepth = Expectimax.DEFAULT_MAX_DEPTH;
+
+    // Chance nodes fewer than this many moves from the root are forked
+    private int parallelDepth = DEFAULT_PARALLEL_DEPTH;
+
+    // Cache of max node values shared by the workers, or null for none
+    private TranspositionTable table;
+
+    /**
+     * ParallelExpectimax constructor
+     * @param evaluator Thread safe evaluator of boards at the search horizon
+     * @param spawnPolicy The spawn rules the game is played with
+     * @param pool Pool that runs the search, sized to the cores to use
+     */
+    public ParallelExpectimax(BoardEvaluator evaluator, SpawnPolicy spawnPolicy,
+                              ForkJoinPool pool) {
+        this.evaluator = evaluator;
+        this.fourProbability = spawnPolicy.getFourProbability();
+        this.twoProbability = 1 - fourProbability;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the search depth
+     * @param maxDepth Depth in moves, at least 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets how deep chance nodes still fork their spawns into tasks.
+     * Deeper splitting balances load better but creates more tasks.
+     * @param parallelDepth Depth in moves from the root, 0 to only
+     *                      search the root flings in parallel
+     */
+    public void setParallelDepth(int parallelDepth) {
+        if (parallelDepth < 0) {
+            throw new IllegalArgumentException("parallelDepth must not be negative");
+        }
+        this.parallelDepth = parallelDepth;
+    }
+
+    /**
+     * Sets the transposition table shared by the workers
+     * @param table The table, or null to search without one
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Finds the best move on a board
+     * @param board The packed board, before any tile is spawned on it
+     * @return The best move and its expected value
+     */
+    public SearchResult search(long board) {
+        int legalMoves = Bitboard.legalMoves(board);
+        if (legalMoves == 0) {
+            return new SearchResult(-1, 0, 0, 0);
+        }
+
+        ChanceTask[] tasks = new ChanceTask[Bitboard.DIRECTIONS];
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            if (Bitboard.canMove(legalMoves, direction)) {
+                tasks[direction] = new ChanceTask(Bitboard.move(board, direction), maxDepth - 1, 0);
+            }
+        }
+        pool.invoke(new RootTask(tasks));
+
+        int bestMove = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        long nodes = 0;
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            if (tasks[direction] == null) {
+                continue;
+            }
+            double value = Bitboard.score(board, direction) + tasks[direction].value;
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = direction;
+            }
+            nodes += tasks[direction].nodes;
+        }
+        return new SearchResult(bestMove, bestValue, maxDepth, nodes);
+    }
+
+    /**
+     * Runs the root flings' chance nodes side by side
+     */
+    private static final class RootTask extends RecursiveAction {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // One task per fling, null for flings that do not move
+        private final ChanceTask[] tasks;
+
+        RootTask(ChanceTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            int count = 0;
+            for (ChanceTask task : tasks) {
+                if (task != null) {
+                    count++;
+                }
+            }
+            ChanceTask[] moving = new ChanceTask[count];
+            count = 0;
+            for (ChanceTask task : tasks) {
+                if (task != null) {
+                    moving[count++] = task;
+                }
+            }
+            invokeAll(moving);
+        }
+    }
+
+    /**
+     * Search of a subtree, with the sequential search below the forked part
+     */
+    private abstract class SearchTask extends RecursiveAction {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // Value of the subtree, set by compute()
+        double value;
+
+        // Nodes evaluated in the subtree
+        long nodes;
+
+        /**
+         * Value of a chance node: the average over every possible spawn
+         * @param board Board after a move, with at least one empty cell
+         * @param depth Moves left to search
+         * @return The expected value
+         */
+        double chance(long board, int depth) {
+            if (depth == 0) {
+                nodes++;
+                return evaluator.evaluate(board);
+            }
+
+            int empty = Bitboard.emptyMask(board);
+            int count = Integer.bitCount(empty);
+            double total = 0;
+            while (empty != 0) {
+                int shift = Integer.numberOfTrailingZeros(empty) * 4;
+                empty &= empty - 1;
+
+                total += twoProbability * max(board | 1L << shift, depth);
+                if (fourProbability > 0) {
+                    total += fourProbability * max(board | 2L << shift, depth);
+                }
+            }
+            return total / count;
+        }
+
+        /**
+         * Value of a max node: the best fling
+         * @param board Board after a spawn
+         * @param depth Moves left to search
+         * @return The value of the best fling, 0 if the game is lost
+         */
+        double max(long board, int depth) {
+            nodes++;
+            board = orient(board);
+            long entry = probe(board, depth);
+            if (entry != TranspositionTable.MISS) {
+                return TranspositionTable.entryValue(entry);
+            }
+
+            int legalMoves = Bitboard.legalMoves(board);
+            double best = 0;
+            int bestMove = -1;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (!Bitboard.canMove(legalMoves, direction)) {
+                    continue;
+                }
+                double value = Bitboard.score(board, direction) +
+                        chance(Bitboard.move(board, direction), depth - 1);
+                if (value > best) {
+                    best = value;
+                    bestMove = direction;
+                }
+            }
+
+            return store(board, depth, best, bestMove);
+        }
+
+        /**
+         * Turns a max node's board to the orientation it is searched in
+         * @param board Board after a spawn
+         * @return The canonical board when a table is used, else the board
+         */
+        long orient(long board) {
+            return table != null ? Symmetry.canonical(board) : board;
+        }
+
+        /**
+         * Looks a max node up in the table
+         * @param board Board after a spawn
+         * @param depth Moves left to search
+         * @return The entry searched to exactly this depth, or MISS
+         */
+        long probe(long board, int depth) {
+            if (table == null) {
+                return TranspositionTable.MISS;
+            }
+            long entry = table.probe(board, depth);
+            if (entry != TranspositionTable.MISS && TranspositionTable.entryDepth(entry) != depth) {
+                return TranspositionTable.MISS;
+            }
+            return entry;
+        }
+
+        /**
+         * Finishes a max node: rounds its value like the table does and
+         * caches it
+         * @param board Board after a spawn
+         * @param depth Moves left to search
+         * @param best Value of the best fling
+         * @param bestMove The best fling, or -1 for none
+         * @return The rounded value
+         */
+        double store(long board, int depth, double best, int bestMove) {
+            best = (float)best;
+            if (table != null) {
+                table.store(board, depth, best, bestMove);
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A chance node, forked into one task per spawn near the root
+     */
+    private final class ChanceTask extends SearchTask {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // Board after the move
+        private final long board;
+
+        // Moves left to search
+        private final int depth;
+
+        // Moves made from the root to reach the node
+        private final int ply;
+
+        ChanceTask(long board, int depth, int ply) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth == 0 || ply >= parallelDepth) {
+                value = chance(board, depth);
+                return;
+            }
+
+            int empty = Bitboard.emptyMask(board);
+            int count = Integer.bitCount(empty);
+            int values = fourProbability > 0 ? 2 : 1;
+            MaxTask[] spawns = new MaxTask[count * values];
+            int next = 0;
+            while (empty != 0) {
+                int shift = Integer.numberOfTrailingZeros(empty) * 4;
+                empty &= empty - 1;
+
+                spawns[next++] = new MaxTask(board | 1L << shift, depth, ply);
+                if (values == 2) {
+                    spawns[next++] = new MaxTask(board | 2L << shift, depth, ply);
+                }
+            }
+            invokeAll(spawns);
+
+            // Add up in spawn order so the sum does not depend on scheduling
+            double total = 0;
+            for (int i = 0; i < spawns.length; i += values) {
+                total += twoProbability * spawns[i].value;
+                if (values == 2) {
+                    total += fourProbability * spawns[i + 1].value;
+                }
+            }
+            for (MaxTask spawn : spawns) {
+                nodes += spawn.nodes;
+            }
+            value = total / count;
+        }
+    }
+
+    /**
+     * A max node under a forked chance node
+     */
+    private final class MaxTask extends SearchTask {
+
+        // Tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        // Board after the spawn
+        private final long board;
+
+        // Moves left to search
+        private final int depth;
+
+        // Moves made from the root to reach the node
+        private final int ply;
+
+        MaxTask(long board, int depth, int ply) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected void compute() {
+            nodes++;
+            long board = orient(this.board);
+            long entry = probe(board, depth);
+            if (entry != TranspositionTable.MISS) {
+                value = TranspositionTable.entryValue(entry);
+                return;
+            }
+
+            int legalMoves = Bitboard.legalMoves(board);
+            double best = 0;
+            int bestMove = -1;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (!Bitboard.canMove(legalMoves, direction)) {
+                    continue;
+                }
+                ChanceTask child = new ChanceTask(Bitboard.move(board, direction), depth - 1, ply + 1);
+                child.compute();
+                nodes += child.nodes;
+                double value = Bitboard.score(board, direction) + child.value;
+                if (value > best) {
+                    best = value;
+                    bestMove = direction;
+                }
+            }
+
+            value = store(board, depth, best, bestMove);
+        }
+    }
+}
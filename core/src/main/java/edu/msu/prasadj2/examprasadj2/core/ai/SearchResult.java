@@ -0,0 +1,77 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+/**
+ * Outcome of a search: the move to play and what it is expected to be worth
+ */
+public final class SearchResult {
+
+    // Best fling direction, or -1 if the game is over
+    private final int move;
+
+    // Expected value of the best move
+    private final double value;
+
+    // Deepest fully completed search depth
+    private final int depth;
+
+    // Number of nodes evaluated
+    private final long nodes;
+
+    /**
+     * SearchResult constructor
+     * @param move Best fling direction, or -1 if the game is over
+     * @param value Expected value of the best move
+     * @param depth Deepest fully completed search depth
+     * @param nodes Number of nodes evaluated
+     */
+    public SearchResult(int move, double value, int depth, long nodes) {
+        this.move = move;
+        this.value = value;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Gets the best move
+     * @return One of Bitboard.RIGHT, UP, LEFT or DOWN, or -1 if the game is over
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Gets the expected value of the best move: the expected merge score
+     * up to the search horizon plus the evaluation of the boards there
+     * @return The expected value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the deepest fully completed search depth
+     * @return The depth in moves
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the number of nodes evaluated
+     * @return The node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{move=" + move + ", value=" + value +
+                ", depth=" + depth + ", nodes=" + nodes + "}";
+    }
+}
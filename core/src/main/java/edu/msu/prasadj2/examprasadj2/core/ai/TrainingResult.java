@@ -0,0 +1,110 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import java.util.Locale;
+
+/**
+ * Outcome of a training run: how fast games were played and how well
+ */
+public final class TrainingResult {
+
+    // Games played
+    private final long games;
+
+    // Worker threads used
+    private final int threads;
+
+    // Wall-clock time of the run in nanoseconds
+    private final long nanos;
+
+    // Sum of the final scores
+    private final long totalScore;
+
+    // Best final score
+    private final long maxScore;
+
+    /**
+     * TrainingResult constructor
+     * @param games Games played
+     * @param threads Worker threads used
+     * @param nanos Wall-clock time of the run in nanoseconds
+     * @param totalScore Sum of the final scores
+     * @param maxScore Best final score
+     */
+    public TrainingResult(long games, int threads, long nanos, long totalScore, long maxScore) {
+        this.games = games;
+        this.threads = threads;
+        this.nanos = nanos;
+        this.totalScore = totalScore;
+        this.maxScore = maxScore;
+    }
+
+    /**
+     * Gets the number of games played
+     * @return The game count
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of worker threads used
+     * @return The thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the wall-clock time of the run
+     * @return The time in seconds
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Gets the average final score
+     * @return The mean score, 0 if no game was played
+     */
+    public double getAverageScore() {
+        return games == 0 ? 0 : (double)totalScore / games;
+    }
+
+    /**
+     * Gets the best final score
+     * @return The best score
+     */
+    public long getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Gets the training throughput
+     * @return Games played per second
+     */
+    public double getGamesPerSecond() {
+        return nanos == 0 ? 0 : games / getSeconds();
+    }
+
+    /**
+     * Gets the training throughput of one worker, for sizing runs
+     * @return Games played per second per thread
+     */
+    public double getGamesPerSecondPerThread() {
+        return getGamesPerSecond() / threads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d games in %.1f s on %d threads: %.1f games/s, %.1f games/s/thread, " +
+                        "average score %.0f, best %d",
+                games, getSeconds(), threads, getGamesPerSecond(), getGamesPerSecondPerThread(),
+                getAverageScore(), maxScore);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of searched positions, shared by all eight symmetries of a board.
+ *
+ * An open-addressing map from canonical packed boards to packed entries
+ * (value, search depth and best move), held in two primitive long arrays
+ * so nothing is boxed. Memory is fixed at construction. Each board hashes
+ * to a bucket of a few slots, and when the bucket is full the shallowest
+ * entry is replaced, so deeper (more expensive) results are kept.
+ *
+ * Best moves are stored in the canonical orientation and mapped back to
+ * the probed board's orientation on lookup. Sharing entries between
+ * symmetries assumes the evaluator scores symmetric boards equally.
+ *
+ * Safe to share between threads without locks: a slot is two independent
+ * writes, and a key stored XORed with its entry makes a slot whose halves
+ * come from different writes read as a miss rather than a wrong entry.
+ * Hits and misses are counted in stripes picked by thread, each on its
+ * own cache line, and summed when read, so counting does not make the
+ * search threads contend.
+ */
+public class TranspositionTable {
+
+    // Bytes used per slot: one key and one entry
+    private static final int SLOT_BYTES = 16;
+
+    // Slots probed per board
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * Result of probe() when no deep enough entry is found
+     */
+    public static final long MISS = 0;
+
+    // Move field value for "no move"
+    private static final int NO_MOVE = 0xFF;
+
+    // Number of counter stripes, a power of two
+    private static final int STRIPES = 16;
+
+    // Longs between stripes, so each stripe has a 64-byte cache line
+    private static final int STRIPE_STRIDE = 8;
+
+    // Canonical boards, stored as board ^ entry so a key and its entry
+    // that do not belong together are detected as a miss
+    private final long[] keys;
+
+    // Packed entries: value float bits, depth and move
+    private final long[] entries;
+
+    // Index mask for the slot arrays
+    private final int mask;
+
+    // Lookup statistics: hits at the start of each stripe, misses after
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES * STRIPE_STRIDE);
+
+    /**
+     * TranspositionTable constructor
+     * @param megabytes Memory to use, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("megabytes must be at least 1");
+        }
+        long slots = Long.highestOneBit(megabytes * (1L << 20) / SLOT_BYTES);
+        slots = Math.min(slots, 1 << 30);
+        keys = new long[(int)slots];
+        entries = new long[(int)slots];
+        mask = (int)slots - 1;
+    }
+
+    /**
+     * Looks a board up. A hit is read with entryValue(), entryDepth()
+     * and entryMove().
+     * @param board The packed board, in any orientation
+     * @param depth Minimum search depth the cached value must come from
+     * @return The entry, with its move mapped to the board as given,
+     * or MISS if no deep enough entry was found
+     */
+    public long probe(long board, int depth) {
+        int symmetry = Symmetry.canonicalSymmetry(board);
+        long key = Symmetry.apply(board, symmetry);
+        int index = index(key);
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int slot = (index + i) & mask;
+            long entry = entries[slot];
+            if ((keys[slot] ^ entry) == key && entryDepth(entry) >= depth && entryDepth(entry) > 0) {
+                counters.incrementAndGet(stripe());
+                int move = (int)entry & 0xFF;
+                if (move == NO_MOVE) {
+                    return entry;
+                }
+                return entry & ~0xFFL | Symmetry.unmapDirection(move, symmetry);
+            }
+        }
+        counters.incrementAndGet(stripe() + 1);
+        return MISS;
+    }
+
+    /**
+     * Stores a search result. An existing entry for the same board is
+     * only overwritten by a result from at least the same depth.
+     * @param board The packed board, in any orientation
+     * @param depth Search depth the value comes from, 1 to 255
+     * @param value The value
+     * @param move Best move on the board as given, or -1 for none
+     */
+    public void store(long board, int depth, double value, int move) {
+        int symmetry = Symmetry.canonicalSymmetry(board);
+        long key = Symmetry.apply(board, symmetry);
+        int canonicalMove = move < 0 ? NO_MOVE : Symmetry.mapDirection(move, symmetry);
+        long entry = (long)Float.floatToIntBits((float)value) << 32 |
+                (depth & 0xFF) << 8 | canonicalMove;
+
+        int index = index(key);
+        int victim = index;
+        int victimDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int slot = (index + i) & mask;
+            long old = entries[slot];
+            if ((keys[slot] ^ old) == key) {
+                if (depth >= entryDepth(old)) {
+                    put(slot, key, entry);
+                }
+                return;
+            }
+            if (entryDepth(old) < victimDepth) {
+                victimDepth = entryDepth(old);
+                victim = slot;
+            }
+        }
+        put(victim, key, entry);
+    }
+
+    /**
+     * Empties the table and resets the statistics. Not safe while other
+     * threads use the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Gets the number of successful lookups since construction or clear()
+     * @return The hit count
+     */
+    public long getHits() {
+        return sum(0);
+    }
+
+    /**
+     * Gets the number of failed lookups since construction or clear()
+     * @return The miss count
+     */
+    public long getMisses() {
+        return sum(1);
+    }
+
+    /**
+     * Gets the number of slots
+     * @return The capacity in entries
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the value of an entry found by probe()
+     * @param entry The entry
+     * @return The cached value, rounded to float precision
+     */
+    public static double entryValue(long entry) {
+        return Float.intBitsToFloat((int)(entry >>> 32));
+    }
+
+    /**
+     * Gets the search depth of an entry found by probe()
+     * @param entry The entry
+     * @return The depth the cached value comes from
+     */
+    public static int entryDepth(long entry) {
+        return (int)(entry >>> 8) & 0xFF;
+    }
+
+    /**
+     * Gets the best move of an entry found by probe()
+     * @param entry The entry
+     * @return The move on the probed board, or -1 for none
+     */
+    public static int entryMove(long entry) {
+        int move = (int)entry & 0xFF;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * Writes a slot
+     */
+    private void put(int slot, long key, long entry) {
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /**
+     * Gets the calling thread's counter stripe
+     * @return Index of the stripe's hit counter
+     */
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return ((int)(id ^ (id >>> 32)) & (STRIPES - 1)) * STRIPE_STRIDE;
+    }
+
+    /**
+     * Sums one counter across the stripes
+     * @param offset 0 for hits, 1 for misses
+     * @return The total
+     */
+    private long sum(int offset) {
+        long total = 0;
+        for (int i = offset; i < counters.length(); i += STRIPE_STRIDE) {
+            total += counters.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the first slot of a key's bucket
+     */
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int)(hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,162 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the batch engine
+ */
+public class BatchEngineTest {
+
+    @Test
+    public void newGamesHaveTwoTiles() {
+        BatchEngine batch = new BatchEngine(100, SpawnPolicy.STANDARD, 1);
+        batch.newGames(100);
+        assertEquals(100, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(14, Bitboard.countEmpty(batch.getBoard(i)));
+            assertEquals(0, batch.getScore(i));
+            assertTrue(batch.isAlive(i));
+            assertEquals(Bitboard.legalMoves(batch.getBoard(i)), batch.getLegalMoves(i));
+        }
+    }
+
+    @Test
+    public void stepsFollowTheRules() {
+        BatchEngine batch = new BatchEngine(64, SpawnPolicy.STANDARD, 2);
+        batch.newGames(64);
+        int[] directions = new int[64];
+        for (int step = 0; step < 50; step++) {
+            long[] before = new long[batch.size()];
+            int[] scores = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                before[i] = batch.getBoard(i);
+                scores[i] = batch.getScore(i);
+                directions[i] = step % Bitboard.DIRECTIONS;
+            }
+
+            batch.move(directions);
+            batch.spawn();
+            for (int i = 0; i < batch.size(); i++) {
+                long board = before[i];
+                int direction = directions[i];
+                if (Bitboard.canMove(Bitboard.legalMoves(board), direction)) {
+                    // Exactly one new tile on top of the moved board
+                    long moved = Bitboard.move(board, direction);
+                    long added = batch.getBoard(i) ^ moved;
+                    long tile = added >>> (Long.numberOfTrailingZeros(added) / 4 * 4);
+                    assertTrue(tile == 1 || tile == 2);
+                    assertEquals(Bitboard.countEmpty(moved) - 1, Bitboard.countEmpty(batch.getBoard(i)));
+                    assertEquals(scores[i] + Bitboard.score(board, direction), batch.getScore(i));
+                }
+                else {
+                    assertEquals(board, batch.getBoard(i));
+                    assertEquals(scores[i], batch.getScore(i));
+                }
+                assertEquals(Bitboard.legalMoves(batch.getBoard(i)), batch.getLegalMoves(i));
+            }
+        }
+    }
+
+    @Test
+    public void randomGamesRunToTheEnd() {
+        BatchEngine batch = new BatchEngine(500, SpawnPolicy.STANDARD, 3);
+        batch.newGames(500);
+        int[] directions = new int[500];
+        final int[] finished = new int[1];
+        final long[] totalMoves = new long[1];
+        while (batch.size() > 0) {
+            batch.randomMoves(directions);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.isAlive(i)) {
+                    assertTrue(Bitboard.canMove(batch.getLegalMoves(i), directions[i]));
+                }
+                else {
+                    assertEquals(-1, directions[i]);
+                }
+            }
+            assertEquals(countAlive(batch), batch.move(directions));
+            batch.spawn();
+            batch.compact(new BatchEngine.FinishedGames() {
+                @Override
+                public void finished(long board, int score, int moves) {
+                    assertEquals(0, Bitboard.legalMoves(board));
+                    assertTrue(score > 0);
+                    finished[0]++;
+                    totalMoves[0] += moves;
+                }
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                assertTrue(batch.isAlive(i));
+            }
+        }
+        assertEquals(500, finished[0]);
+        assertTrue(totalMoves[0] / 500 > 50);
+    }
+
+    @Test
+    public void oneFlingForAllMatchesAFlingEach() {
+        BatchEngine kernel = new BatchEngine(100, SpawnPolicy.STANDARD, 5);
+        BatchEngine each = new BatchEngine(100, SpawnPolicy.STANDARD, 5);
+        kernel.setMoveKernel(MoveKernels.scalar());
+        kernel.newGames(100);
+        each.newGames(100);
+        int[] directions = new int[100];
+        for (int step = 0; step < 200; step++) {
+            int direction = step % 3 == 0 ? Bitboard.LEFT : Bitboard.DOWN;
+            Arrays.fill(directions, direction);
+            assertEquals(each.move(directions), kernel.move(direction));
+            kernel.spawn();
+            each.spawn();
+            for (int i = 0; i < 100; i++) {
+                assertEquals(each.getBoard(i), kernel.getBoard(i));
+                assertEquals(each.getScore(i), kernel.getScore(i));
+            }
+        }
+    }
+
+    @Test
+    public void scalarKernelIsTheFallback() {
+        // The vector kernel is not on the core module's class path
+        assertNull(MoveKernels.vector());
+        assertSame(MoveKernels.scalar(), MoveKernels.best());
+    }
+
+    @Test
+    public void equalSeedsPlayTheSame() {
+        BatchEngine a = new BatchEngine(32, SpawnPolicy.STANDARD, 4);
+        BatchEngine b = new BatchEngine(32, SpawnPolicy.STANDARD, 4);
+        a.newGames(32);
+        b.newGames(32);
+        int[] directionsA = new int[32];
+        int[] directionsB = new int[32];
+        for (int step = 0; step < 100; step++) {
+            a.randomMoves(directionsA);
+            b.randomMoves(directionsB);
+            assertArrayEquals(directionsA, directionsB);
+            a.move(directionsA);
+            b.move(directionsB);
+            a.spawn();
+            b.spawn();
+            a.compact(null);
+            b.compact(null);
+        }
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.getBoard(i), b.getBoard(i));
+        }
+    }
+
+    private static int countAlive(BatchEngine batch) {
+        int alive = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.isAlive(i)) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+}
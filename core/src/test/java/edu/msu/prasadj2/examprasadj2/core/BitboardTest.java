@@ -0,0 +1,188 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the packed bitboard move engine
+ */
+public class BitboardTest {
+
+    /**
+     * Builds a packed board from rows of tile values
+     */
+    private static long board(int[][] values) {
+        long board = 0;
+        for (int row = 0; row < values.length; row++) {
+            for (int col = 0; col < values[row].length; col++) {
+                int value = values[row][col];
+                int exponent = value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+                board = Bitboard.setExponent(board, row, col, exponent);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    public void setAndGetTiles() {
+        long board = Bitboard.setExponent(0, 2, 3, 11);
+        assertEquals(11, Bitboard.getExponent(board, 2, 3));
+        assertEquals(2048, Bitboard.getValue(board, 2, 3));
+        assertEquals(0, Bitboard.getValue(board, 3, 2));
+        assertEquals(15, Bitboard.countEmpty(board));
+        assertEquals(11, Bitboard.maxExponent(board));
+    }
+
+    @Test
+    public void transposeSwapsRowsAndColumns() {
+        long board = board(new int[][] {
+                {2, 4, 8, 16},
+                {0, 0, 0, 32},
+                {0, 0, 0, 0},
+                {64, 0, 0, 0}});
+        long transposed = Bitboard.transpose(board);
+        for (int row = 0; row < Bitboard.SIZE; row++) {
+            for (int col = 0; col < Bitboard.SIZE; col++) {
+                assertEquals(Bitboard.getExponent(board, row, col),
+                        Bitboard.getExponent(transposed, col, row));
+            }
+        }
+        assertEquals(board, Bitboard.transpose(transposed));
+    }
+
+    @Test
+    public void moveLeftMergesOncePerTile() {
+        long board = board(new int[][] {
+                {2, 2, 2, 2},
+                {4, 0, 4, 8},
+                {2, 4, 8, 16},
+                {0, 0, 0, 2}});
+        long expected = board(new int[][] {
+                {4, 4, 0, 0},
+                {8, 8, 0, 0},
+                {2, 4, 8, 16},
+                {2, 0, 0, 0}});
+        assertEquals(expected, Bitboard.move(board, Bitboard.LEFT));
+        assertEquals(4 + 4 + 8, Bitboard.score(board, Bitboard.LEFT));
+    }
+
+    @Test
+    public void moveRightMergesFromTheRight() {
+        long board = board(new int[][] {
+                {2, 2, 2, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}});
+        long expected = board(new int[][] {
+                {0, 0, 2, 4},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}});
+        assertEquals(expected, Bitboard.move(board, Bitboard.RIGHT));
+        assertEquals(4, Bitboard.score(board, Bitboard.RIGHT));
+    }
+
+    @Test
+    public void moveUpAndDownWorkOnColumns() {
+        long board = board(new int[][] {
+                {2, 0, 0, 0},
+                {2, 0, 0, 4},
+                {4, 0, 0, 0},
+                {0, 0, 0, 4}});
+        long up = board(new int[][] {
+                {4, 0, 0, 8},
+                {4, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}});
+        long down = board(new int[][] {
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {4, 0, 0, 0},
+                {4, 0, 0, 8}});
+        assertEquals(up, Bitboard.move(board, Bitboard.UP));
+        assertEquals(down, Bitboard.move(board, Bitboard.DOWN));
+        assertEquals(12, Bitboard.score(board, Bitboard.UP));
+        assertEquals(12, Bitboard.score(board, Bitboard.DOWN));
+    }
+
+    @Test
+    public void blockedMoveLeavesBoardUnchanged() {
+        long board = board(new int[][] {
+                {2, 4, 0, 0},
+                {8, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}});
+        assertEquals(board, Bitboard.move(board, Bitboard.LEFT));
+        assertEquals(0, Bitboard.score(board, Bitboard.LEFT));
+    }
+
+    @Test
+    public void emptyMaskMatchesCells() {
+        Random random = new Random(4);
+        for (int i = 0; i < 10000; i++) {
+            long board = random.nextLong() & random.nextLong();
+            int expected = 0;
+            for (int cell = 0; cell < Bitboard.SIZE * Bitboard.SIZE; cell++) {
+                if (Bitboard.getExponent(board, cell / Bitboard.SIZE, cell % Bitboard.SIZE) == 0) {
+                    expected |= 1 << cell;
+                }
+            }
+            assertEquals(expected, Bitboard.emptyMask(board));
+        }
+    }
+
+    @Test
+    public void selectCellFindsKthSetBit() {
+        for (int mask = 1; mask < 1 << 16; mask++) {
+            int k = 0;
+            for (int cell = 0; cell < 16; cell++) {
+                if ((mask & (1 << cell)) != 0) {
+                    assertEquals(cell, Bitboard.selectCell(mask, k++));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void legalMovesMatchesBoardChanges() {
+        Random random = new Random(8);
+        for (int i = 0; i < 100000; i++) {
+            // Few distinct exponents so that merges are common
+            long board = random.nextLong() & 0x3333333333333333L & random.nextLong();
+            int expected = 0;
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                if (Bitboard.move(board, direction) != board) {
+                    expected |= 1 << direction;
+                }
+            }
+            assertEquals(expected, Bitboard.legalMoves(board));
+        }
+        assertEquals(0, Bitboard.legalMoves(0x1212212112122121L));
+        assertEquals(Bitboard.ALL_MOVES, Bitboard.legalMoves(0x0000000000100000L));
+    }
+
+    @Test
+    public void changedCellsMarksDifferingNibbles() {
+        Random random = new Random(9);
+        for (int i = 0; i < 100000; i++) {
+            long before = random.nextLong();
+            // Change a few random bits so that some cells stay the same
+            long after = before ^ (random.nextLong() & random.nextLong() & random.nextLong());
+            int expected = 0;
+            for (int cell = 0; cell < 16; cell++) {
+                int row = cell / 4;
+                int col = cell % 4;
+                if (Bitboard.getExponent(before, row, col) != Bitboard.getExponent(after, row, col)) {
+                    expected |= 1 << cell;
+                }
+            }
+            assertEquals(expected, Bitboard.changedCells(before, after));
+        }
+        assertEquals(0, Bitboard.changedCells(0x1234L, 0x1234L));
+        assertEquals(0xFFFF, Bitboard.changedCells(0, -1L));
+        assertEquals(1 << 15, Bitboard.changedCells(0, 0x8000000000000000L));
+    }
+}
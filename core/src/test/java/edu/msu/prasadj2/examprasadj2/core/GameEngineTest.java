@@ -0,0 +1,107 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the rules engine
+ */
+public class GameEngineTest {
+
+    private static final int WARMUP_MOVES = 200000;
+
+    private static final int MEASURED_MOVES = 100000;
+
+    @Test
+    public void newGameHasTwoTiles() {
+        GameEngine engine = new GameEngine(1);
+        assertEquals(14, Bitboard.countEmpty(engine.getBoard()));
+        assertEquals(0, engine.getScore());
+        assertFalse(engine.isGameOver());
+    }
+
+    @Test
+    public void flingMovesScoresAndSpawns() {
+        GameEngine engine = new GameEngine(2);
+        int moves = 0;
+        while (!engine.isGameOver()) {
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                long board = engine.getBoard();
+                int score = engine.getScore();
+                if (!engine.canMove(direction)) {
+                    assertFalse(engine.fling(direction));
+                    assertEquals(board, engine.getBoard());
+                    continue;
+                }
+
+                assertTrue(engine.fling(direction));
+                moves++;
+                long moved = Bitboard.move(board, direction);
+                assertEquals(score + Bitboard.score(board, direction), engine.getScore());
+
+                // Exactly one new 2 tile on a cell that was empty after the move
+                long spawned = engine.getBoard() ^ moved;
+                assertEquals(1, Long.bitCount(spawned));
+                assertEquals(Bitboard.countEmpty(moved) - 1, Bitboard.countEmpty(engine.getBoard()));
+            }
+        }
+        assertTrue(moves > 0);
+        for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+            assertEquals(engine.getBoard(), Bitboard.move(engine.getBoard(), direction));
+        }
+    }
+
+    @Test
+    public void flingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        assumeAllocationCounters(threads);
+        long thread = Thread.currentThread().getId();
+
+        GameEngine engine = new GameEngine(3);
+        int direction = 0;
+
+        // Let the JIT settle before measuring
+        for (int i = 0; i < WARMUP_MOVES; i++) {
+            if (engine.isGameOver()) {
+                engine.newGame();
+            }
+            engine.fling(direction);
+            direction = (direction + 1) % Bitboard.DIRECTIONS;
+        }
+
+        // Cost of reading the counter itself
+        long overhead = threads.getThreadAllocatedBytes(thread);
+        overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+
+        long allocated = 0;
+        int moves = 0;
+        while (moves < MEASURED_MOVES) {
+            if (engine.isGameOver()) {
+                engine.newGame();
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            if (engine.fling(direction)) {
+                moves++;
+            }
+            allocated += threads.getThreadAllocatedBytes(thread) - before - overhead;
+            direction = (direction + 1) % Bitboard.DIRECTIONS;
+        }
+
+        // A real per-move allocation costs at least 16 bytes every move, while
+        // the runtime may make a handful of one-off allocations (deoptimization,
+        // recompilation) while we measure. Less than a byte per move is zero.
+        assertEquals("bytes allocated per move", 0, allocated / MEASURED_MOVES);
+    }
+
+    /**
+     * Skips the test on JVMs without per-thread allocation counters
+     */
+    private static void assumeAllocationCounters(com.sun.management.ThreadMXBean threads) {
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+}
@@ -0,0 +1,82 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the seeded game random number generator
+ */
+public class GameRandomTest {
+
+    @Test
+    public void sameSeedGivesSameSequence() {
+        GameRandom a = new GameRandom(42);
+        GameRandom b = new GameRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+        assertNotEquals(new GameRandom(42).nextLong(), new GameRandom(43).nextLong());
+    }
+
+    @Test
+    public void splitsAreDeterministicAndIndependent() {
+        GameRandom parentA = new GameRandom(7);
+        GameRandom parentB = new GameRandom(7);
+        GameRandom childA = parentA.split();
+        GameRandom childB = parentB.split();
+        GameRandom sibling = parentA.split();
+        parentB.split();
+
+        int matches = 0;
+        for (int i = 0; i < 1000; i++) {
+            long child = childA.nextLong();
+            long parent = parentA.nextLong();
+            assertEquals(child, childB.nextLong());
+            assertEquals(parent, parentB.nextLong());
+            if (child == parent || child == sibling.nextLong()) {
+                matches++;
+            }
+        }
+        assertEquals(0, matches);
+    }
+
+    @Test
+    public void nextIntIsInRangeAndUniform() {
+        GameRandom random = new GameRandom(1);
+        int[] counts = new int[7];
+        for (int i = 0; i < 70000; i++) {
+            counts[random.nextInt(7)]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+        assertEquals(0, random.nextInt(1));
+    }
+
+    @Test
+    public void nextDoubleIsInUnitInterval() {
+        GameRandom random = new GameRandom(2);
+        double sum = 0;
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0 && value < 1);
+            sum += value;
+        }
+        assertEquals(0.5, sum / 100000, 0.01);
+    }
+
+    @Test
+    public void seededEnginesPlayIdenticalGames() {
+        GameEngine a = new GameEngine(99);
+        GameEngine b = new GameEngine(99);
+        int direction = 0;
+        while (!a.isGameOver()) {
+            assertEquals(a.fling(direction), b.fling(direction));
+            assertEquals(a.getBoard(), b.getBoard());
+            direction = (direction + 1) % Bitboard.DIRECTIONS;
+        }
+        assertTrue(b.isGameOver());
+        assertEquals(a.getScore(), b.getScore());
+    }
+}
@@ -0,0 +1,85 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the saved game encoding
+ */
+public class GameStateTest {
+
+    /**
+     * Plays a few moves of a seeded game
+     * @param moves Number of flings
+     * @return The game state, with a history of the moves
+     */
+    private static GameState play(int moves) {
+        GameEngine engine = new GameEngine(new GameRandom(9), SpawnPolicy.STANDARD);
+        MoveHistory history = new MoveHistory(16);
+        history.reset(engine.getBoard(), engine.getScore());
+        for (int move = 0; move < moves && !engine.isGameOver(); move++) {
+            engine.fling(Integer.numberOfTrailingZeros(engine.getLegalMoves()));
+            history.record(engine.getBoard(), engine.getScore(), engine.getLastSpawn());
+        }
+        return new GameState(engine, new GameRandom(4), 1234, history);
+    }
+
+    @Test
+    public void restoredGamePlaysOnIdentically() {
+        GameState original = play(30);
+        byte[] bytes = original.encode();
+        assertEquals(104 + 16 + 17 * 13, bytes.length);
+
+        GameState copy = GameState.decode(bytes);
+        assertEquals(1234, copy.getPaletteSeed());
+        assertEquals(original.getColorRandom().nextLong(), copy.getColorRandom().nextLong());
+
+        GameEngine a = original.getEngine();
+        GameEngine b = copy.getEngine();
+        assertEquals(a.getBoard(), b.getBoard());
+        assertEquals(a.getScore(), b.getScore());
+        assertEquals(a.getLegalMoves(), b.getLegalMoves());
+        assertEquals(a.getSpawnPolicy().getFourProbability(), b.getSpawnPolicy().getFourProbability(), 0);
+        while (!a.isGameOver()) {
+            int direction = 31 - Integer.numberOfLeadingZeros(a.getLegalMoves());
+            a.fling(direction);
+            b.fling(direction);
+            assertEquals(a.getBoard(), b.getBoard());
+        }
+
+        MoveHistory history = copy.getHistory();
+        assertEquals(16, history.getUndoCount());
+        assertTrue(history.undo());
+    }
+
+    @Test
+    public void historyIsOptional() {
+        GameState state = play(0);
+        GameState bare = new GameState(state.getEngine(), state.getColorRandom(), 5, null);
+        byte[] bytes = bare.encode();
+        assertEquals(104, bytes.length);
+        assertNull(GameState.decode(bytes).getHistory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherVersions() {
+        byte[] bytes = play(3).encode();
+        bytes[7]++;
+        GameState.decode(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedStates() {
+        byte[] bytes = play(3).encode();
+        GameState.decode(Arrays.copyOf(bytes, 60));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedHistories() {
+        byte[] bytes = play(3).encode();
+        GameState.decode(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
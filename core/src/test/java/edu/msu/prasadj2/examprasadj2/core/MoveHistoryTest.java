@@ -0,0 +1,137 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the undo and redo history
+ */
+public class MoveHistoryTest {
+
+    @Test
+    public void undoAndRedoWalkTheGame() {
+        GameEngine engine = new GameEngine(new GameRandom(3), SpawnPolicy.STANDARD);
+        MoveHistory history = new MoveHistory(MoveHistory.DEFAULT_CAPACITY);
+        history.reset(engine.getBoard(), engine.getScore());
+
+        long[] boards = new long[21];
+        int[] scores = new int[21];
+        long[] spawns = new long[21];
+        boards[0] = engine.getBoard();
+        for (int move = 1; move <= 20; move++) {
+            int direction = Integer.numberOfTrailingZeros(engine.getLegalMoves());
+            long moved = Bitboard.move(engine.getBoard(), direction);
+            engine.fling(direction);
+            assertEquals(moved | engine.getLastSpawn(), engine.getBoard());
+            history.record(engine.getBoard(), engine.getScore(), engine.getLastSpawn());
+            boards[move] = engine.getBoard();
+            scores[move] = engine.getScore();
+            spawns[move] = engine.getLastSpawn();
+        }
+
+        assertEquals(20, history.getUndoCount());
+        for (int move = 19; move >= 0; move--) {
+            assertTrue(history.undo());
+            assertEquals(boards[move], history.getBoard());
+            assertEquals(scores[move], history.getScore());
+        }
+        assertFalse(history.undo());
+        assertEquals(0, history.getSpawn());
+
+        for (int move = 1; move <= 20; move++) {
+            assertTrue(history.redo());
+            assertEquals(boards[move], history.getBoard());
+            assertEquals(spawns[move], history.getSpawn());
+        }
+        assertFalse(history.redo());
+    }
+
+    @Test
+    public void newMoveDropsTheRedos() {
+        MoveHistory history = new MoveHistory(8);
+        history.reset(1, 0);
+        history.record(2, 4, 0x10);
+        history.record(3, 8, 0x200);
+        history.undo();
+        history.undo();
+        history.record(4, 12, 0x1000);
+        assertFalse(history.canRedo());
+        assertEquals(1, history.getUndoCount());
+        assertEquals(4, history.getBoard());
+        assertEquals(0x1000, history.getSpawn());
+        history.undo();
+        assertEquals(1, history.getBoard());
+    }
+
+    @Test
+    public void fullHistoryForgetsTheOldest() {
+        MoveHistory history = new MoveHistory(3);
+        history.reset(100, 0);
+        for (int move = 1; move <= 10; move++) {
+            history.record(100 + move, move, 0);
+        }
+        assertEquals(3, history.getUndoCount());
+        while (history.undo()) {
+            continue;
+        }
+        assertEquals(107, history.getBoard());
+        assertEquals(3, history.getRedoCount());
+    }
+
+    @Test
+    public void encodingRoundTrips() {
+        MoveHistory history = new MoveHistory(4);
+        history.reset(0x21, 0);
+        for (int move = 1; move <= 6; move++) {
+            history.record(0x21 + move, move * 4, (long)(move % 2 + 1) << (move * 4));
+        }
+        history.undo();
+        history.undo();
+
+        byte[] bytes = history.encode();
+        assertEquals(16 + 5 * 13, bytes.length);
+        MoveHistory copy = MoveHistory.decode(bytes);
+        assertEquals(4, copy.getCapacity());
+        assertEquals(history.getUndoCount(), copy.getUndoCount());
+        assertEquals(history.getRedoCount(), copy.getRedoCount());
+        while (history.canUndo()) {
+            history.undo();
+            copy.undo();
+        }
+        while (history.canRedo()) {
+            assertEquals(history.getBoard(), copy.getBoard());
+            assertEquals(history.getScore(), copy.getScore());
+            assertEquals(history.getSpawn(), copy.getSpawn());
+            history.redo();
+            copy.redo();
+        }
+        copy.record(7, 7, 0);
+        assertEquals(7, copy.getBoard());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBadEncodings() {
+        byte[] bytes = new MoveHistory(4).encode();
+        bytes[0] ^= 1;
+        MoveHistory.decode(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyHistories() {
+        // Header of a history that was never reset: no positions, cursor -1
+        byte[] bytes = new MoveHistory(4).encode();
+        assertEquals(16, bytes.length);
+        MoveHistory.decode(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedEncodings() {
+        MoveHistory history = new MoveHistory(4);
+        history.reset(1, 0);
+        byte[] bytes = history.encode();
+        MoveHistory.decode(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
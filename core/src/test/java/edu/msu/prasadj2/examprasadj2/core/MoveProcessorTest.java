@@ -0,0 +1,168 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for applying moves on a worker thread
+ */
+public class MoveProcessorTest {
+
+    // Requests queued between waits, fewer than the ring holds
+    private static final int BATCH = 32;
+
+    private static final int WARMUP_BATCHES = 2000;
+
+    private static final int MEASURED_BATCHES = 2000;
+
+    @Test
+    public void flingsApplyInOrderOnTheWorker() {
+        GameEngine reference = new GameEngine(new GameRandom(5), SpawnPolicy.STANDARD);
+        MoveProcessor processor = newProcessor(new GameEngine(new GameRandom(5), SpawnPolicy.STANDARD));
+        final List<BoardSnapshot> published = Collections.synchronizedList(new ArrayList<BoardSnapshot>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        processor.setListener(new MoveProcessor.Listener() {
+            @Override
+            public void onSnapshot(BoardSnapshot snapshot) {
+                published.add(snapshot);
+                threads.add(Thread.currentThread());
+            }
+        });
+        assertEquals(reference.getBoard(), processor.getSnapshot().getBoard());
+
+        // Queue every direction in turn, including flings that do not move
+        int moved = 0;
+        for (int i = 0; i < 400; i++) {
+            int direction = i % Bitboard.DIRECTIONS;
+            processor.fling(direction);
+            if (reference.fling(direction)) {
+                moved++;
+            }
+        }
+        processor.awaitIdle();
+
+        BoardSnapshot last = processor.getSnapshot();
+        assertEquals(reference.getBoard(), last.getBoard());
+        assertEquals(reference.getScore(), last.getScore());
+        assertEquals(reference.getLegalMoves(), last.getLegalMoves());
+        assertEquals(moved, last.getSequence());
+        assertEquals(moved, published.size());
+        for (int i = 0; i < published.size(); i++) {
+            BoardSnapshot snapshot = published.get(i);
+            assertEquals(i + 1, snapshot.getSequence());
+            assertNotSame(Thread.currentThread(), threads.get(i));
+
+            // Each fling's transitions lead from the board before it to the one after
+            assertEquals(snapshot.getBoard(), Bitboard.move(snapshot.getPreviousBoard(), snapshot.getDirection())
+                    | snapshot.getSpawn());
+        }
+    }
+
+    @Test
+    public void undoRedoAndNewGamePublishWithoutDirection() {
+        MoveProcessor processor = newProcessor(new GameEngine(6));
+        processor.awaitIdle();
+        long start = processor.getSnapshot().getBoard();
+
+        int direction = Integer.numberOfTrailingZeros(processor.getSnapshot().getLegalMoves());
+        processor.fling(direction);
+        processor.awaitIdle();
+        long afterFling = processor.getSnapshot().getBoard();
+        assertEquals(direction, processor.getSnapshot().getDirection());
+
+        processor.undo();
+        processor.awaitIdle();
+        assertEquals(start, processor.getSnapshot().getBoard());
+        assertEquals(afterFling, processor.getSnapshot().getPreviousBoard());
+        assertEquals(-1, processor.getSnapshot().getDirection());
+
+        processor.redo();
+        processor.redo();
+        processor.awaitIdle();
+        assertEquals(afterFling, processor.getSnapshot().getBoard());
+        assertEquals(3, processor.getSnapshot().getSequence());
+
+        processor.newGame();
+        processor.awaitIdle();
+        assertEquals(0, processor.getSnapshot().getScore());
+        assertEquals(14, Bitboard.countEmpty(processor.getSnapshot().getBoard()));
+        assertEquals(-1, processor.getSnapshot().getDirection());
+    }
+
+    @Test
+    public void encodeWaitsForQueuedMoves() {
+        MoveProcessor processor = newProcessor(new GameEngine(7));
+        for (int i = 0; i < 100; i++) {
+            processor.fling(i % Bitboard.DIRECTIONS);
+        }
+        byte[] bytes = processor.encode(new GameRandom(8), 9);
+
+        BoardSnapshot snapshot = processor.getSnapshot();
+        GameState state = GameState.decode(bytes);
+        assertEquals(snapshot.getBoard(), state.getEngine().getBoard());
+        assertEquals(snapshot.getScore(), state.getEngine().getScore());
+        assertEquals(snapshot.getSequence(), state.getHistory().getUndoCount());
+        assertEquals(9, state.getPaletteSeed());
+    }
+
+    @Test
+    public void queueingMovesDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        MoveProcessor processor = newProcessor(new GameEngine(10));
+
+        // Let the JIT settle and the worker start before measuring
+        for (int i = 0; i < WARMUP_BATCHES; i++) {
+            queueBatch(processor);
+            processor.awaitIdle();
+        }
+
+        // Cost of reading the counter itself
+        long overhead = threads.getThreadAllocatedBytes(thread);
+        overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_BATCHES; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            queueBatch(processor);
+            allocated += threads.getThreadAllocatedBytes(thread) - before - overhead;
+            processor.awaitIdle();
+        }
+
+        // The worker still allocates a snapshot per change, but the thread
+        // queueing the moves should not allocate at all
+        assertEquals("bytes allocated per request", 0, allocated / ((long)MEASURED_BATCHES * BATCH));
+    }
+
+    /**
+     * Queues a batch of flings in every direction, starting a new game
+     * first if the last one is over
+     */
+    private static void queueBatch(MoveProcessor processor) {
+        if (processor.getSnapshot().isGameOver()) {
+            processor.newGame();
+        }
+        for (int i = 0; i < BATCH; i++) {
+            processor.fling(i % Bitboard.DIRECTIONS);
+        }
+    }
+
+    /**
+     * Creates a processor for a game with a fresh history
+     */
+    private static MoveProcessor newProcessor(GameEngine engine) {
+        MoveHistory history = new MoveHistory(MoveHistory.DEFAULT_CAPACITY);
+        history.reset(engine.getBoard(), engine.getScore());
+        return new MoveProcessor(engine, history);
+    }
+}
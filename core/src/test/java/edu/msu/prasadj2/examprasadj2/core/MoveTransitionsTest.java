@@ -0,0 +1,99 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the tile transitions of a fling
+ */
+public class MoveTransitionsTest {
+
+    @Test
+    public void rowOfEqualTilesMergesInPairs() {
+        MoveTransitions transitions = new MoveTransitions();
+        // Row 0 is 2 2 2 2
+        transitions.compute(0x1111L, Bitboard.LEFT);
+        assertEquals(4, transitions.getCount());
+        int[] destinations = {0, 0, 1, 1};
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, transitions.getSource(i));
+            assertEquals(destinations[i], transitions.getDestination(i));
+            assertEquals(1, transitions.getExponent(i));
+            assertTrue(transitions.isMerged(i));
+        }
+        assertEquals(-1, transitions.getSpawnCell());
+
+        // Column 0 is 4, empty, 4, 2 from the top
+        transitions.compute(0x1000200000002L, Bitboard.DOWN);
+        assertEquals(3, transitions.getCount());
+        assertEquals(12, transitions.getSource(0));
+        assertEquals(12, transitions.getDestination(0));
+        assertFalse(transitions.isMerged(0));
+        assertEquals(8, transitions.getSource(1));
+        assertEquals(8, transitions.getDestination(1));
+        assertTrue(transitions.isMerged(1));
+        assertEquals(0, transitions.getSource(2));
+        assertEquals(8, transitions.getDestination(2));
+        assertTrue(transitions.isMerged(2));
+        assertEquals(1 << 0 | 1 << 8, transitions.getAnimatedCells());
+    }
+
+    @Test
+    public void transitionsRebuildTheMovedBoard() {
+        MoveTransitions transitions = new MoveTransitions();
+        Random random = new Random(10);
+        for (int i = 0; i < 100000; i++) {
+            // Few distinct exponents so that merges are common
+            long board = random.nextLong() & 0x3333333333333333L & random.nextLong();
+            if (i % 100 == 0) {
+                // 32768 tiles, which do not merge
+                board |= 0xFF00L;
+            }
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                transitions.compute(board, direction);
+                assertEquals(16 - Bitboard.countEmpty(board), transitions.getCount());
+
+                long rebuilt = 0;
+                for (int t = 0; t < transitions.getCount(); t++) {
+                    int source = transitions.getSource(t);
+                    int exponent = transitions.getExponent(t);
+                    assertEquals(exponent, (int)(board >>> (source * 4)) & 0xF);
+                    int shift = transitions.getDestination(t) * 4;
+                    if (!transitions.isMerged(t)) {
+                        rebuilt |= (long)exponent << shift;
+                    }
+                    else if ((rebuilt >>> shift & 0xF) == 0) {
+                        // First of the pair places the merged tile
+                        rebuilt |= (long)(exponent + 1) << shift;
+                    }
+                }
+                assertEquals(Bitboard.move(board, direction), rebuilt);
+            }
+        }
+    }
+
+    @Test
+    public void recordsTheSpawnedTile() {
+        GameEngine engine = new GameEngine(new GameRandom(4), SpawnPolicy.STANDARD);
+        MoveTransitions transitions = new MoveTransitions();
+        int moves = 0;
+        while (!engine.isGameOver() && moves < 200) {
+            int direction = Integer.numberOfTrailingZeros(engine.getLegalMoves());
+            transitions.compute(engine.getBoard(), direction);
+            assertTrue(engine.fling(direction));
+            transitions.setSpawn(engine.getLastSpawn());
+            moves++;
+
+            long spawn = engine.getLastSpawn();
+            int cell = transitions.getSpawnCell();
+            assertTrue(cell >= 0);
+            assertEquals(spawn, (long)transitions.getSpawnExponent() << (cell * 4));
+        }
+        transitions.setSpawn(0);
+        assertEquals(-1, transitions.getSpawnCell());
+        assertEquals(0, transitions.getSpawnExponent());
+    }
+}
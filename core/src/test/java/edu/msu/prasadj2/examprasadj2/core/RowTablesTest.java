@@ -0,0 +1,39 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the precomputed row tables
+ */
+public class RowTablesTest {
+
+    @Test
+    public void leftTableMatchesRowRoutine() {
+        for (int row = 0; row < RowTables.ROW_COUNT; row++) {
+            assertEquals(RowTables.moveRowLeft(row), RowTables.LEFT[row]);
+            assertEquals(RowTables.scoreRowLeft(row), RowTables.SCORE[row]);
+        }
+    }
+
+    @Test
+    public void rightTableIsMirroredLeftTable() {
+        for (int row = 0; row < RowTables.ROW_COUNT; row++) {
+            int reversed = Bitboard.reverseRow(row);
+            assertEquals(Bitboard.reverseRow(RowTables.LEFT[reversed]), RowTables.RIGHT[row]);
+            assertEquals(RowTables.SCORE[row], RowTables.SCORE[reversed]);
+        }
+    }
+
+    @Test
+    public void rebuildProducesSameTables() {
+        char[] left = new char[RowTables.ROW_COUNT];
+        char[] right = new char[RowTables.ROW_COUNT];
+        int[] score = new int[RowTables.ROW_COUNT];
+        RowTables.build(left, right, score);
+        assertArrayEquals(RowTables.LEFT, left);
+        assertArrayEquals(RowTables.RIGHT, right);
+        assertArrayEquals(RowTables.SCORE, score);
+    }
+}
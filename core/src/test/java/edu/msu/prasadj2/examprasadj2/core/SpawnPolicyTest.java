@@ -0,0 +1,60 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for tile spawning
+ */
+public class SpawnPolicyTest {
+
+    private static final int SAMPLES = 160000;
+
+    @Test
+    public void spawnsUniformlyOnEmptyCells() {
+        // Occupy every other cell
+        long board = 0x0101010101010101L;
+        int[] counts = new int[16];
+        GameRandom random = new GameRandom(5);
+        for (int i = 0; i < SAMPLES; i++) {
+            long spawned = SpawnPolicy.TWOS_ONLY.spawn(board, random) ^ board;
+            assertEquals(1, Long.bitCount(spawned));
+            counts[Long.numberOfTrailingZeros(spawned) / 4]++;
+        }
+
+        int expected = SAMPLES / 8;
+        for (int cell = 0; cell < 16; cell++) {
+            if (cell % 2 == 0) {
+                assertEquals(0, counts[cell]);
+            }
+            else {
+                assertEquals(expected, counts[cell], expected * 0.05);
+            }
+        }
+    }
+
+    @Test
+    public void standardPolicySpawnsTenPercentFours() {
+        GameRandom random = new GameRandom(6);
+        int fours = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long spawned = SpawnPolicy.STANDARD.spawn(0, random);
+            if (Bitboard.maxExponent(spawned) == 2) {
+                fours++;
+            }
+        }
+        assertEquals(0.1, fours / (double)SAMPLES, 0.005);
+    }
+
+    @Test
+    public void fillsTheLastEmptyCell() {
+        long board = 0x1111111111111111L & ~(0xFL << 36);
+        assertEquals(0x1111111111111111L, SpawnPolicy.TWOS_ONLY.spawn(board, new GameRandom(7)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBadProbability() {
+        new SpawnPolicy(1.5);
+    }
+}
@@ -0,0 +1,57 @@
+package edu.msu.prasadj2.examprasadj2.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for board symmetries
+ */
+public class SymmetryTest {
+
+    @Test
+    public void symmetricBoardsShareACanonicalForm() {
+        Random random = new Random(9);
+        for (int i = 0; i < 10000; i++) {
+            long board = random.nextLong();
+            long canonical = Symmetry.canonical(board);
+            assertEquals(canonical, Symmetry.apply(board, Symmetry.canonicalSymmetry(board)));
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                long transformed = Symmetry.apply(board, symmetry);
+                assertEquals(canonical, Symmetry.canonical(transformed));
+                assertTrue(canonical <= transformed);
+            }
+        }
+    }
+
+    @Test
+    public void directionsMapWithTheBoard() {
+        Random random = new Random(10);
+        for (int i = 0; i < 10000; i++) {
+            long board = random.nextLong() & 0x3333333333333333L & random.nextLong();
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                long transformed = Symmetry.apply(board, symmetry);
+                for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                    int mapped = Symmetry.mapDirection(direction, symmetry);
+                    assertEquals(Symmetry.apply(Bitboard.move(board, direction), symmetry),
+                            Bitboard.move(transformed, mapped));
+                    assertEquals(direction, Symmetry.unmapDirection(mapped, symmetry));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void eightDistinctSymmetries() {
+        long board = 0x0000000000000321L;
+        Set<Long> seen = new HashSet<>();
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            seen.add(Symmetry.apply(board, symmetry));
+        }
+        assertEquals(Symmetry.COUNT, seen.size());
+    }
+}
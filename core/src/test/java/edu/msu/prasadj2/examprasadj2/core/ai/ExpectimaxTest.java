@@ -0,0 +1,79 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the expectimax search
+ */
+public class ExpectimaxTest {
+
+    @Test
+    public void lostBoardHasNoMove() {
+        Expectimax search = new Expectimax(new EmptyCellEvaluator(1), SpawnPolicy.STANDARD);
+        SearchResult result = search.search(0x1212212112122121L);
+        assertEquals(-1, result.getMove());
+        assertEquals(0, result.getDepth());
+    }
+
+    @Test
+    public void depthOneTakesTheMerge() {
+        Expectimax search = new Expectimax(new EmptyCellEvaluator(0), SpawnPolicy.TWOS_ONLY);
+        search.setMaxDepth(1);
+
+        // Two 2 tiles side by side in the top row
+        long board = 0x0011L;
+        SearchResult result = search.search(board);
+        assertTrue(result.getMove() == Bitboard.LEFT || result.getMove() == Bitboard.RIGHT);
+        assertEquals(4, result.getValue(), 0);
+        assertEquals(1, result.getDepth());
+    }
+
+    @Test
+    public void deeperSearchCountsExpectedMerges() {
+        Expectimax search = new Expectimax(new EmptyCellEvaluator(0), SpawnPolicy.TWOS_ONLY);
+        search.setMaxDepth(2);
+        search.setMinProbability(0);
+
+        // A single 2 tile: no merge now, and the second move can only
+        // merge if the spawn lands next to the tile in the sliding line
+        SearchResult result = search.search(0x0001L);
+        assertTrue(result.getValue() > 0);
+        assertTrue(result.getValue() < 4);
+        assertEquals(2, result.getDepth());
+        assertTrue(result.getNodes() > 0);
+    }
+
+    @Test
+    public void timeBudgetStopsDeepening() {
+        Expectimax search = new Expectimax(new EmptyCellEvaluator(1), SpawnPolicy.STANDARD);
+        search.setMaxDepth(50);
+        search.setMinProbability(0);
+        search.setTimeBudget(50);
+
+        long start = System.nanoTime();
+        SearchResult result = search.search(0x0000000000120021L);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue(result.getMove() >= 0);
+        assertTrue(result.getDepth() >= 1 && result.getDepth() < 50);
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 1000);
+    }
+
+    @Test
+    public void searchPlaysAFullGame() {
+        Expectimax search = new Expectimax(new EmptyCellEvaluator(16), SpawnPolicy.TWOS_ONLY);
+        search.setMaxDepth(2);
+        GameEngine engine = new GameEngine(new GameRandom(11), SpawnPolicy.TWOS_ONLY);
+        while (!engine.isGameOver()) {
+            assertTrue(engine.fling(search.search(engine.getBoard()).getMove()));
+        }
+        assertTrue(Bitboard.maxExponent(engine.getBoard()) >= 9);
+    }
+}
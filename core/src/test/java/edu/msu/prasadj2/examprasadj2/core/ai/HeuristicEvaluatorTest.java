@@ -0,0 +1,111 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the heuristic evaluation and its weights
+ */
+public class HeuristicEvaluatorTest {
+
+    @Test
+    public void tableMatchesLineByLineScoring() {
+        HeuristicWeights weights = new HeuristicWeights();
+        HeuristicEvaluator evaluator = new HeuristicEvaluator(weights);
+        Random random = new Random(12);
+        for (int i = 0; i < 10000; i++) {
+            long board = random.nextLong() & random.nextLong();
+            long transposed = Bitboard.transpose(board);
+            double expected = weights.getBase();
+            for (int row = 0; row < Bitboard.SIZE; row++) {
+                expected += HeuristicEvaluator.scoreLine(Bitboard.getRow(board, row), weights);
+                expected += HeuristicEvaluator.scoreLine(Bitboard.getRow(transposed, row), weights);
+            }
+            assertEquals(Math.max(expected, 0), evaluator.evaluate(board), 1e-5 * Math.abs(expected) + 1);
+        }
+    }
+
+    @Test
+    public void symmetricBoardsEvaluateEqually() {
+        HeuristicEvaluator evaluator = new HeuristicEvaluator();
+        Random random = new Random(13);
+        for (int i = 0; i < 1000; i++) {
+            long board = random.nextLong() & random.nextLong();
+            double value = evaluator.evaluate(board);
+            for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+                assertEquals(value, evaluator.evaluate(Symmetry.apply(board, symmetry)), 1e-6 * value);
+            }
+        }
+    }
+
+    @Test
+    public void linesScoreTheirTerms() {
+        HeuristicWeights weights = new HeuristicWeights();
+        weights.setEmpty(1);
+        weights.setMerges(10);
+        weights.setMonotonicity(100);
+        weights.setMonotonicityPower(1);
+        weights.setSmoothness(1000);
+        weights.setCorner(10000);
+
+        // Empty line: four empty cells only
+        assertEquals(4, HeuristicEvaluator.scoreLine(0x0000, weights), 0);
+        // 2 2 _ _: two empty, one merge, cornered 2
+        assertEquals(2 + 10 + 10000, HeuristicEvaluator.scoreLine(0x0011, weights), 0);
+        // 2 8 4 _: one empty, steps of 2 up and 1 + 2 down, roughness 3
+        assertEquals(1 - 2 * 100 - 3000, HeuristicEvaluator.scoreLine(0x0231, weights), 0);
+    }
+
+    @Test
+    public void weightsRoundTripThroughProperties() throws IOException {
+        HeuristicWeights weights = new HeuristicWeights();
+        weights.setCorner(123.5);
+        weights.setMonotonicityPower(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        weights.store(out);
+
+        HeuristicWeights loaded = HeuristicWeights.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(123.5, loaded.getCorner(), 0);
+        assertEquals(3, loaded.getMonotonicityPower(), 0);
+        assertEquals(weights.getMerges(), loaded.getMerges(), 0);
+    }
+
+    @Test
+    public void missingWeightsKeepTheirDefaults() throws IOException {
+        byte[] file = "# tuned\nempty = 300\n".getBytes(StandardCharsets.ISO_8859_1);
+        HeuristicWeights loaded = HeuristicWeights.load(new ByteArrayInputStream(file));
+        assertEquals(300, loaded.getEmpty(), 0);
+        assertEquals(new HeuristicWeights().getBase(), loaded.getBase(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badWeightIsRejected() throws IOException {
+        byte[] file = "merges = lots\n".getBytes(StandardCharsets.ISO_8859_1);
+        HeuristicWeights.load(new ByteArrayInputStream(file));
+    }
+
+    @Test
+    public void searchWithHeuristicReaches2048() {
+        Expectimax search = new Expectimax(new HeuristicEvaluator(), SpawnPolicy.STANDARD);
+        search.setMaxDepth(2);
+        search.setTranspositionTable(new TranspositionTable(16));
+        GameEngine engine = new GameEngine(new GameRandom(1), SpawnPolicy.STANDARD);
+        while (!engine.isGameOver() && Bitboard.maxExponent(engine.getBoard()) < 11) {
+            assertTrue(engine.fling(search.search(engine.getBoard()).getMove()));
+        }
+        assertEquals(11, Bitboard.maxExponent(engine.getBoard()));
+    }
+}
@@ -0,0 +1,77 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for memory-mapped n-tuple networks
+ */
+public class MappedNTupleNetworkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mappedValuesMatchTheHeap() throws IOException {
+        NTupleNetwork network = new NTupleNetwork(new int[][] {
+                {0, 1, 2, 3}, {0, 1, 4, 5}, {0, 1, 2, 4, 5, 6}, {3}});
+        Random random = new Random(14);
+        long[] boards = new long[1000];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = random.nextLong();
+            network.update(boards[i], random.nextFloat() - 0.25f);
+        }
+
+        MappedNTupleNetwork mapped = MappedNTupleNetwork.open(save(network));
+        for (long board : boards) {
+            assertEquals(network.value(board), mapped.value(board), 0);
+            assertEquals(network.evaluate(board), mapped.evaluate(board), 0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFileIsRejected() throws IOException {
+        File file = save(new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES));
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            access.setLength(access.length() - 4);
+        }
+        finally {
+            access.close();
+        }
+        MappedNTupleNetwork.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void emptyFileIsRejected() throws IOException {
+        MappedNTupleNetwork.open(folder.newFile());
+    }
+
+    /**
+     * Saves a network to a temporary file
+     * @param network The network
+     * @return The file
+     */
+    private File save(NTupleNetwork network) throws IOException {
+        File file = folder.newFile();
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            network.save(out);
+        }
+        finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,132 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Monte Carlo player
+ */
+public class MonteCarloPlayerTest {
+
+    private static final long[] BOARDS = {
+            0x0000001000210132L,
+            0x0000000000120021L,
+            0x1000231034214321L,
+            0x0010000000000001L,
+    };
+
+    @Test
+    public void lostBoardHasNoMove() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            MonteCarloPlayer player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 1);
+            SearchResult result = player.search(0x1234432112344321L);
+            assertEquals(-1, result.getMove());
+            assertEquals(0, player.getLastPlayouts());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void spendsTheBudget() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            MonteCarloPlayer player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 1);
+            player.setPlayouts(100);
+            player.setDepthCap(5);
+            for (long board : BOARDS) {
+                SearchResult result = player.search(board);
+                assertTrue(Bitboard.canMove(Bitboard.legalMoves(board), result.getMove()));
+                assertEquals(100, player.getLastPlayouts());
+                assertEquals(100, result.getNodes());
+                assertEquals(1, result.getDepth());
+                assertTrue(player.getLastFlings() <= 5 * player.getLastPlayouts());
+                assertTrue(player.getPlayoutsPerSecond() > 0);
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void smallBudgetsAreNotExceeded() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            MonteCarloPlayer player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 1);
+            // All four flings are legal
+            long board = 0x0010000000000001L;
+            for (int playouts = 1; playouts <= 9; playouts++) {
+                player.setPlayouts(playouts);
+                SearchResult result = player.search(board);
+                assertEquals(playouts, player.getLastPlayouts());
+                assertEquals(playouts, result.getNodes());
+                assertTrue(Bitboard.canMove(Bitboard.legalMoves(board), result.getMove()));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreadCount() {
+        SearchResult[] expected = null;
+        for (int threads = 1; threads <= 4; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                MonteCarloPlayer player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 42);
+                player.setPlayouts(200);
+                player.setRolloutPolicy(MonteCarloPlayer.RolloutPolicy.GREEDY);
+
+                SearchResult[] results = new SearchResult[BOARDS.length];
+                for (int i = 0; i < BOARDS.length; i++) {
+                    results[i] = player.search(BOARDS[i]);
+                }
+                if (expected == null) {
+                    expected = results;
+                }
+                for (int i = 0; i < BOARDS.length; i++) {
+                    assertEquals(expected[i].getMove(), results[i].getMove());
+                    assertEquals(expected[i].getValue(), results[i].getValue(), 0);
+                    assertEquals(expected[i].getNodes(), results[i].getNodes());
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void reaches512() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            MonteCarloPlayer player = new MonteCarloPlayer(SpawnPolicy.STANDARD, pool, 7);
+            player.setPlayouts(40);
+            GameEngine engine = new GameEngine(new GameRandom(3), SpawnPolicy.STANDARD);
+            while (!engine.isGameOver()) {
+                assertTrue(engine.fling(player.search(engine.getBoard()).getMove()));
+            }
+            assertTrue(Bitboard.maxExponent(engine.getBoard()) >= 9);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyBudget() {
+        new MonteCarloPlayer(SpawnPolicy.STANDARD, ForkJoinPool.commonPool(), 1).setPlayouts(0);
+    }
+}
@@ -0,0 +1,105 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the n-tuple network and its trainer
+ */
+public class NTupleTrainerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void updatesMoveTheValue() {
+        NTupleNetwork network = new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES);
+        long board = 0x0000001000210132L;
+        assertEquals(0, network.value(board), 0);
+
+        // A weight selected by several symmetries is raised once per selection
+        network.update(board, 1);
+        assertTrue(network.value(board) >= network.getActiveWeights());
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            assertEquals(network.value(board), network.value(Symmetry.apply(board, symmetry)), 1e-3);
+        }
+
+        network.update(board, -2);
+        assertTrue(network.value(board) < 0);
+        assertEquals(0, network.evaluate(board), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tuplesMustBeOnTheBoard() {
+        new NTupleNetwork(new int[][] {{0, 1, 16}});
+    }
+
+    @Test
+    public void networkRoundTrips() throws IOException {
+        NTupleNetwork network = new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES);
+        long board = 0x1000231034214321L;
+        network.update(board, 0.5f);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        network.save(out);
+        NTupleNetwork loaded = NTupleNetwork.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(network.value(board), loaded.value(board), 0);
+        assertEquals(network.getActiveWeights(), loaded.getActiveWeights());
+    }
+
+    @Test(expected = IOException.class)
+    public void garbageIsNotANetwork() throws IOException {
+        NTupleNetwork.load(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test
+    public void trainingImprovesPlay() throws Exception {
+        NTupleNetwork network = new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES);
+        NTupleTrainer trainer = new NTupleTrainer(network, SpawnPolicy.STANDARD);
+        trainer.setThreads(1);
+
+        TrainingResult early = trainer.train(200, 1);
+        trainer.train(800, 2);
+        TrainingResult later = trainer.train(200, 3);
+
+        assertEquals(200, early.getGames());
+        assertTrue(early.getGamesPerSecondPerThread() > 0);
+        assertTrue(later + " vs " + early, later.getAverageScore() > early.getAverageScore());
+    }
+
+    @Test
+    public void checkpointsCanBeLoaded() throws Exception {
+        File file = new File(folder.getRoot(), "network.bin");
+        NTupleNetwork network = new NTupleNetwork(NTupleNetwork.LINES_AND_SQUARES);
+        NTupleTrainer trainer = new NTupleTrainer(network, SpawnPolicy.STANDARD);
+        trainer.setThreads(2);
+        trainer.setCheckpoint(file, 10);
+
+        TrainingResult result = trainer.train(40, 4);
+        assertEquals(40, result.getGames());
+        assertEquals(2, result.getThreads());
+        assertTrue(file.isFile());
+
+        InputStream in = new FileInputStream(file);
+        try {
+            NTupleNetwork loaded = NTupleNetwork.load(in);
+            assertEquals(network.getActiveWeights(), loaded.getActiveWeights());
+        }
+        finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.GameEngine;
+import edu.msu.prasadj2.examprasadj2.core.GameRandom;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the parallel expectimax search
+ */
+public class ParallelExpectimaxTest {
+
+    private static final long[] BOARDS = {
+            0x0000001000210132L,
+            0x0000000000120021L,
+            0x1000231034214321L,
+            0x0010000000000001L,
+    };
+
+    @Test
+    public void matchesTheSequentialSearch() {
+        Expectimax sequential = new Expectimax(new EmptyCellEvaluator(16), SpawnPolicy.STANDARD);
+        sequential.setMaxDepth(3);
+        sequential.setMinProbability(0);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelExpectimax parallel = new ParallelExpectimax(new EmptyCellEvaluator(16),
+                    SpawnPolicy.STANDARD, pool);
+            parallel.setMaxDepth(3);
+            for (long board : BOARDS) {
+                SearchResult expected = sequential.search(board);
+                SearchResult actual = parallel.search(board);
+                assertEquals(expected.getMove(), actual.getMove());
+                assertEquals(expected.getValue(), actual.getValue(), 1e-4 * expected.getValue());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreadCount() {
+        SearchResult[] expected = null;
+        for (int threads = 1; threads <= 4; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelExpectimax search = new ParallelExpectimax(new EmptyCellEvaluator(16),
+                        SpawnPolicy.STANDARD, pool);
+                search.setMaxDepth(3);
+                search.setParallelDepth(threads - 1);
+                search.setTranspositionTable(new TranspositionTable(4));
+
+                SearchResult[] results = new SearchResult[BOARDS.length];
+                for (int i = 0; i < BOARDS.length; i++) {
+                    results[i] = search.search(BOARDS[i]);
+                }
+                if (expected == null) {
+                    expected = results;
+                }
+                for (int i = 0; i < BOARDS.length; i++) {
+                    assertEquals(expected[i].getMove(), results[i].getMove());
+                    assertEquals(expected[i].getValue(), results[i].getValue(), 0);
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void seededGamesPlayOutTheSame() {
+        long[] boards = new long[2];
+        int[] threads = {1, 3};
+        for (int i = 0; i < threads.length; i++) {
+            ForkJoinPool pool = new ForkJoinPool(threads[i]);
+            try {
+                ParallelExpectimax search = new ParallelExpectimax(new EmptyCellEvaluator(16),
+                        SpawnPolicy.STANDARD, pool);
+                search.setMaxDepth(2);
+                search.setTranspositionTable(new TranspositionTable(4));
+                GameEngine engine = new GameEngine(new GameRandom(5), SpawnPolicy.STANDARD);
+                for (int move = 0; move < 200 && !engine.isGameOver(); move++) {
+                    assertTrue(engine.fling(search.search(engine.getBoard()).getMove()));
+                }
+                boards[i] = engine.getBoard();
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        assertEquals(boards[0], boards[1]);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.msu.prasadj2.examprasadj2.core.ai;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.SpawnPolicy;
+import edu.msu.prasadj2.examprasadj2.core.Symmetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the transposition table
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndFindsEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.getCapacity());
+
+        long board = 0x0000000000120021L;
+        assertEquals(TranspositionTable.MISS, table.probe(board, 1));
+        table.store(board, 3, 123.5, Bitboard.LEFT);
+
+        long entry = table.probe(board, 3);
+        assertEquals(123.5, TranspositionTable.entryValue(entry), 0);
+        assertEquals(3, TranspositionTable.entryDepth(entry));
+        assertEquals(Bitboard.LEFT, TranspositionTable.entryMove(entry));
+
+        // Too shallow for a deeper request
+        assertEquals(TranspositionTable.MISS, table.probe(board, 4));
+    }
+
+    @Test
+    public void symmetricBoardsHitWithMappedMoves() {
+        TranspositionTable table = new TranspositionTable(1);
+        long board = 0x0000000000000321L;
+        table.store(board, 2, 10, Bitboard.DOWN);
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            long entry = table.probe(Symmetry.apply(board, symmetry), 2);
+            assertEquals(Symmetry.mapDirection(Bitboard.DOWN, symmetry),
+                    TranspositionTable.entryMove(entry));
+        }
+    }
+
+    @Test
+    public void keepsDeeperEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long board = 0x0000000000000121L;
+        table.store(board, 4, 50, -1);
+        table.store(board, 2, 20, -1);
+        long entry = table.probe(board, 1);
+        assertEquals(4, TranspositionTable.entryDepth(entry));
+        assertEquals(50, TranspositionTable.entryValue(entry), 0);
+        assertEquals(-1, TranspositionTable.entryMove(entry));
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(board, 1));
+    }
+
+    @Test
+    public void countsHitsAndMisses() throws InterruptedException {
+        final TranspositionTable table = new TranspositionTable(1);
+        final long board = 0x0000000000000121L;
+        table.probe(board, 1);
+        table.store(board, 2, 5, -1);
+        table.probe(board, 1);
+        table.probe(board, 2);
+        table.probe(board, 3);
+        assertEquals(2, table.getHits());
+        assertEquals(2, table.getMisses());
+
+        // Counts from many threads at once all add up
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        table.probe(board, 2);
+                        table.probe(board, 3);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(2 + 80000, table.getHits());
+        assertEquals(2 + 80000, table.getMisses());
+
+        table.clear();
+        assertEquals(0, table.getHits());
+        assertEquals(0, table.getMisses());
+    }
+
+    @Test
+    public void memoryStaysBounded() {
+        TranspositionTable table = new TranspositionTable(1);
+        for (long board = 1; board < 4 * table.getCapacity(); board++) {
+            table.store(board * 0x1000100010001L, 1, board, -1);
+        }
+        assertEquals(1 << 16, table.getCapacity());
+    }
+
+    @Test
+    public void searchWithTableMatchesSearchWithout() {
+        Expectimax plain = new Expectimax(new EmptyCellEvaluator(16), SpawnPolicy.TWOS_ONLY);
+        Expectimax cached = new Expectimax(new EmptyCellEvaluator(16), SpawnPolicy.TWOS_ONLY);
+        TranspositionTable table = new TranspositionTable(16);
+        cached.setTranspositionTable(table);
+        plain.setMaxDepth(3);
+        cached.setMaxDepth(3);
+        plain.setMinProbability(0);
+        cached.setMinProbability(0);
+
+        long board = 0x0000001000210132L;
+        SearchResult expected = plain.search(board);
+        SearchResult actual = cached.search(board);
+        assertEquals(expected.getMove(), actual.getMove());
+        assertEquals(expected.getValue(), actual.getValue(), 1e-3 * expected.getValue());
+        assertTrue(actual.getNodes() < expected.getNodes());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Author: Jaideep Prasad
+ * CSE 476 Spring 2020 Practical Exam
+ */
+
+package edu.msu.prasadj2.examprasadj2.simd;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.MoveKernel;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Move kernel that flings a vector of boards per step with the Vector API.
+ *
+ * Each lane holds one packed board. The four rows of every lane are
+ * looked up in the row tables with gathers, so a step costs four gathers
+ * for the boards and four for the scores however many lanes there are.
+ * Vertical flings transpose the lanes before and after with the same
+ * shifts and masks as Bitboard.transpose. Boards left over after the
+ * last full vector go through the scalar rules.
+ *
+ * Created by MoveKernels through reflection. Each kernel keeps its own
+ * gather index buffer so a step allocates nothing, which makes it safe
+ * for one thread at a time only.
+ */
+public final class VectorMoveKernel implements MoveKernel {
+
+    // One board per lane, as wide as the hardware allows
+    private static final VectorSpecies<Long> BOARDS = LongVector.SPECIES_PREFERRED;
+
+    // Ints with one lane per board lane, for indexes and scores
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(BOARDS.vectorBitSize() / 2));
+
+    // Number of rows in the tables
+    private static final int ROW_COUNT = 1 << 16;
+
+    // Every row moved left and right, widened to longs for the gathers
+    private static final long[] LEFT = new long[ROW_COUNT];
+    private static final long[] RIGHT = new long[ROW_COUNT];
+
+    // Merge score of every row, the same in both directions
+    private static final int[] SCORE = new int[ROW_COUNT];
+
+    static {
+        // A board holding only a first row moves and scores just that row
+        for (int row = 0; row < ROW_COUNT; row++) {
+            LEFT[row] = Bitboard.move(row, Bitboard.LEFT);
+            RIGHT[row] = Bitboard.move(row, Bitboard.RIGHT);
+            SCORE[row] = Bitboard.score(row, Bitboard.LEFT);
+        }
+    }
+
+    // Table row of every lane, for the gathers
+    private final int[] indexes = new int[BOARDS.length()];
+
+    /**
+     * VectorMoveKernel constructor
+     * @throws UnsupportedOperationException If vectors have a single
+     * lane, so the kernel could not be faster than the scalar one
+     */
+    public VectorMoveKernel() {
+        if (BOARDS.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD support for longs");
+        }
+    }
+
+    @Override
+    public void move(long[] boards, int[] scores, int count, int direction) {
+        boolean vertical = direction == Bitboard.UP || direction == Bitboard.DOWN;
+        long[] table = direction == Bitboard.LEFT || direction == Bitboard.UP ? LEFT : RIGHT;
+        int[] indexes = this.indexes;
+
+        int i = 0;
+        for (int bound = BOARDS.loopBound(count); i < bound; i += BOARDS.length()) {
+            LongVector board = LongVector.fromArray(BOARDS, boards, i);
+            if (vertical) {
+                board = transpose(board);
+            }
+
+            LongVector moved = LongVector.zero(BOARDS);
+            IntVector score = IntVector.zero(INTS);
+            for (int row = 0; row < Bitboard.SIZE; row++) {
+                LongVector index = board.lanewise(VectorOperators.LSHR, row * 16).and(0xFFFFL);
+                ((IntVector)index.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(indexes, 0);
+
+                LongVector line = LongVector.fromArray(BOARDS, table, 0, indexes, 0);
+                moved = moved.or(line.lanewise(VectorOperators.LSHL, row * 16));
+                score = score.add(IntVector.fromArray(INTS, SCORE, 0, indexes, 0));
+            }
+
+            if (vertical) {
+                moved = transpose(moved);
+            }
+            moved.intoArray(boards, i);
+            score.intoArray(scores, i);
+        }
+
+        for (; i < count; i++) {
+            long board = boards[i];
+            scores[i] = Bitboard.score(board, direction);
+            boards[i] = Bitboard.move(board, direction);
+        }
+    }
+
+    /**
+     * Transposes the board in every lane
+     * @param board Packed boards
+     * @return The transposed boards
+     */
+    private static LongVector transpose(LongVector board) {
+        LongVector a1 = board.and(0xF0F00F0FF0F00F0FL);
+        LongVector a2 = board.and(0x0000F0F00000F0F0L).lanewise(VectorOperators.LSHL, 12);
+        LongVector a3 = board.and(0x0F0F00000F0F0000L).lanewise(VectorOperators.LSHR, 12);
+        LongVector a = a1.or(a2).or(a3);
+        LongVector b1 = a.and(0xFF00FF0000FF00FFL);
+        LongVector b2 = a.and(0x00FF00FF00000000L).lanewise(VectorOperators.LSHR, 24);
+        LongVector b3 = a.and(0x00000000FF00FF00L).lanewise(VectorOperators.LSHL, 24);
+        return b1.or(b2).or(b3);
+    }
+}
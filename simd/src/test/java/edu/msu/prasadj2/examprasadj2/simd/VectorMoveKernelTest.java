@@ -0,0 +1,59 @@
+package edu.msu.prasadj2.examprasadj2.simd;
+
+import edu.msu.prasadj2.examprasadj2.core.Bitboard;
+import edu.msu.prasadj2.examprasadj2.core.MoveKernel;
+import edu.msu.prasadj2.examprasadj2.core.MoveKernels;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the vector kernel against the scalar rules
+ */
+public class VectorMoveKernelTest {
+
+    @Test
+    public void isPickedWhenAvailable() {
+        assertTrue(MoveKernels.vector() instanceof VectorMoveKernel);
+        assertTrue(MoveKernels.best() instanceof VectorMoveKernel);
+        // Each caller gets its own scratch space
+        assertNotSame(MoveKernels.vector(), MoveKernels.vector());
+    }
+
+    @Test
+    public void matchesTheScalarRules() {
+        MoveKernel kernel = new VectorMoveKernel();
+        Random random = new Random(16);
+
+        // Odd counts leave a scalar tail after the last full vector
+        for (int count : new int[] {0, 1, 7, 64, 1000, 1023}) {
+            long[] boards = new long[count];
+            for (int i = 0; i < count; i++) {
+                boards[i] = random.nextLong() & random.nextLong();
+            }
+            for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+                long[] moved = boards.clone();
+                int[] scores = new int[count];
+                kernel.move(moved, scores, count, direction);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(Bitboard.move(boards[i], direction), moved[i]);
+                    assertEquals(Bitboard.score(boards[i], direction), scores[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void leavesBoardsPastTheCountAlone() {
+        long[] boards = {0x0011L, 0x0011L, 0x0011L, 0x0011L, 0x0011L, 0x0011L, 0x0011L, 0x0011L, 0x0011L};
+        int[] scores = new int[boards.length];
+        new VectorMoveKernel().move(boards, scores, 5, Bitboard.LEFT);
+        for (int i = 0; i < boards.length; i++) {
+            assertEquals(i < 5 ? 0x0002L : 0x0011L, boards[i]);
+            assertEquals(i < 5 ? 4 : 0, scores[i]);
+        }
+    }
+}